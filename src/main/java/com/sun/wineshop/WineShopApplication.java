@@ -2,8 +2,10 @@ package com.sun.wineshop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WineShopApplication {
 
 	public static void main(String[] args) {
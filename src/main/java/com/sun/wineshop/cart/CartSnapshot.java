@@ -0,0 +1,6 @@
+package com.sun.wineshop.cart;
+
+import java.util.Map;
+
+// Lines in the order they were first added, product id to quantity. cartId is null until the cart is written.
+public record CartSnapshot(Long cartId, Map<Long, Integer> lines) {}
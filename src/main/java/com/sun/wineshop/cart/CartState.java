@@ -0,0 +1,95 @@
+package com.sun.wineshop.cart;
+
+import com.sun.wineshop.repository.CartJdbcRepository;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One user's cart as held by CartStore. Lines are only touched under the user's lock; the dirty set
+// is concurrent so a failed background write can mark its lines again without taking that lock.
+public class CartState {
+
+    private final Long userId;
+    private final Map<Long, Integer> lines;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private volatile Long cartId;
+    volatile CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+    volatile long lastAccess = System.nanoTime();
+    // Failed writes of this cart since its last successful one, as counted by the flush.
+    volatile int failedWrites;
+
+    public CartState(Long userId, Long cartId, Map<Long, Integer> lines) {
+        this.userId = userId;
+        this.cartId = cartId;
+        this.lines = new LinkedHashMap<>(lines);
+    }
+
+    public boolean contains(Long productId) {
+        return lines.containsKey(productId);
+    }
+
+    public void add(Long productId, int quantity) {
+        lines.merge(productId, quantity, Integer::sum);
+        dirty.add(productId);
+    }
+
+    // A quantity of zero or less removes the line.
+    public void set(Long productId, int quantity) {
+        if (quantity > 0) {
+            lines.put(productId, quantity);
+        } else {
+            lines.remove(productId);
+        }
+        dirty.add(productId);
+    }
+
+    public boolean remove(Long productId) {
+        if (lines.remove(productId) == null) {
+            return false;
+        }
+        dirty.add(productId);
+        return true;
+    }
+
+    public CartSnapshot snapshot() {
+        return new CartSnapshot(cartId, Collections.unmodifiableMap(new LinkedHashMap<>(lines)));
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    boolean isDirty() {
+        return !dirty.isEmpty();
+    }
+
+    boolean isClean() {
+        return dirty.isEmpty() && pendingWrite.isDone();
+    }
+
+    // Takes the current quantity of every changed line; called under the user's lock.
+    public CartJdbcRepository.CartWrite drain() {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Long productId : dirty) {
+            quantities.put(productId, lines.getOrDefault(productId, 0));
+        }
+        dirty.removeAll(quantities.keySet());
+        return new CartJdbcRepository.CartWrite(userId, cartId, quantities);
+    }
+
+    Set<Long> unwritten() {
+        return Set.copyOf(dirty);
+    }
+
+    void written(Long createdCartId) {
+        failedWrites = 0;
+        if (cartId == null) {
+            cartId = createdCartId;
+        }
+    }
+
+    void writeFailed(CartJdbcRepository.CartWrite write) {
+        dirty.addAll(write.quantities().keySet());
+    }
+}
@@ -0,0 +1,268 @@
+package com.sun.wineshop.cart;
+
+import com.sun.wineshop.configuration.CartStoreProperties;
+import com.sun.wineshop.repository.CartJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Active carts kept in memory by user id. Changes are written back to MySQL in coalesced batches by
+// the scheduled flush, synchronously before checkout, and on shutdown. A cart that is not in memory,
+// after an eviction or a restart, is loaded again on its next use.
+@Slf4j
+@Component
+public class CartStore {
+
+    private static final int OUTAGE_FAILURES = 3;
+
+    private final CartStoreProperties properties;
+    private final CartJdbcRepository cartJdbcRepository;
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    // Per-user serialisation without a lock object per user: users sharing a stripe simply queue.
+    private final ReentrantLock[] locks;
+
+    public CartStore(CartStoreProperties properties, CartJdbcRepository cartJdbcRepository) {
+        this.properties = properties;
+        this.cartJdbcRepository = cartJdbcRepository;
+        this.locks = new ReentrantLock[properties.getLockStripes()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isWriteBehind();
+    }
+
+    public void update(Long userId, Consumer<CartState> mutation) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            CartState cart = load(userId);
+            mutation.accept(cart);
+            if (cart.isDirty()) {
+                dirtyUsers.add(userId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CartSnapshot snapshot(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            return load(userId).snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs work against the database copy of the cart: pending changes are written first and the user's
+    // cart stays locked until work returns. The in-memory cart is dropped afterwards, as checkout empties it.
+    public <T> T checkout(Long userId, Supplier<T> work) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            CartState cart = carts.get(userId);
+            if (cart != null) {
+                writeNow(cart);
+            }
+            T result = work.get();
+            carts.remove(userId);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.cart.flush-interval-ms:2000}")
+    public void flush() {
+        List<CartState> batch = new ArrayList<>();
+        List<CartJdbcRepository.CartWrite> writes = new ArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        for (Iterator<Long> it = dirtyUsers.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                CartState cart = carts.get(userId);
+                if (cart != null && cart.isDirty()) {
+                    writes.add(cart.drain());
+                    cart.pendingWrite = done;
+                    batch.add(cart);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (!writes.isEmpty()) {
+            try {
+                Map<Long, Long> created = cartJdbcRepository.writeAll(writes);
+                batch.forEach(cart -> cart.written(created.get(cart.userId())));
+            } catch (Exception e) {
+                log.warn("Writing {} carts in one batch failed, writing them one by one", writes.size(), e);
+                writeOneByOne(batch, writes);
+            } finally {
+                // Failed lines are marked dirty again before anyone waiting on the write is released.
+                done.complete(null);
+            }
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!dirtyUsers.isEmpty()) {
+            log.error("Shutting down with unwritten changes in {} carts", dirtyUsers.size());
+        }
+    }
+
+    private CartState load(Long userId) {
+        CartState cart = carts.get(userId);
+        if (cart == null) {
+            CartJdbcRepository.StoredCart stored = cartJdbcRepository.findByUserId(userId);
+            cart = new CartState(userId, stored.cartId(), stored.lines());
+            carts.put(userId, cart);
+        }
+        cart.lastAccess = System.nanoTime();
+        return cart;
+    }
+
+    // Called with the user's lock held. Waits for a background write of this cart still in progress,
+    // so the two writes cannot be applied out of order.
+    private void writeNow(CartState cart) {
+        try {
+            cart.pendingWrite.join();
+        } catch (Exception ignored) {
+            // the failed lines are dirty again and go out with this write
+        }
+        if (!cart.isDirty()) {
+            return;
+        }
+        CartJdbcRepository.CartWrite write = cart.drain();
+        try {
+            cart.written(cartJdbcRepository.writeAll(List.of(write)).get(cart.userId()));
+        } catch (RuntimeException e) {
+            cart.writeFailed(write);
+            dirtyUsers.add(cart.userId());
+            throw e;
+        }
+    }
+
+    // Retries a failed batch cart by cart, carts that failed before going last, so one bad cart cannot
+    // hold back the others. Failures count against a cart only while other carts still get through:
+    // when the first few writes all fail the database itself is taken to be down and the rest wait.
+    private void writeOneByOne(List<CartState> batch, List<CartJdbcRepository.CartWrite> writes) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingInt(i -> batch.get(i).failedWrites));
+
+        int written = 0;
+        List<CartState> failed = new ArrayList<>();
+        for (int i : order) {
+            CartState cart = batch.get(i);
+            CartJdbcRepository.CartWrite write = writes.get(i);
+            if (written > 0 || failed.size() < OUTAGE_FAILURES) {
+                try {
+                    cart.written(cartJdbcRepository.writeAll(List.of(write)).get(cart.userId()));
+                    written++;
+                    continue;
+                } catch (Exception e) {
+                    log.warn("Writing the cart of user {} failed: {}", cart.userId(), e.getMessage());
+                    failed.add(cart);
+                }
+            }
+            cart.writeFailed(write);
+            dirtyUsers.add(cart.userId());
+        }
+
+        if (written > 0) {
+            for (CartState cart : failed) {
+                if (++cart.failedWrites >= properties.getMaxWriteAttempts()) {
+                    drop(cart, cart.failedWrites + " failed writes");
+                }
+            }
+        }
+        log.warn("Wrote {} of {} carts one by one, {} carts still have unwritten changes",
+                written, batch.size(), dirtyUsers.size());
+    }
+
+    // Idle clean carts are dropped, then the least recently used while over the size bound. Past the bound
+    // a dirty cart is written first, and dropped with its changes if that fails too, so that maxCarts
+    // holds while the database is down.
+    private void evictIdle() {
+        long idleBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        int excess = carts.size() - properties.getMaxCarts();
+        List<CartState> candidates = new ArrayList<>(carts.values());
+        if (excess > 0) {
+            candidates.sort(Comparator.comparingLong(cart -> cart.lastAccess));
+        }
+
+        for (CartState cart : candidates) {
+            boolean overBound = excess > 0;
+            if (!overBound && cart.lastAccess - idleBefore > 0) {
+                continue;
+            }
+            ReentrantLock lock = lockFor(cart.userId());
+            lock.lock();
+            try {
+                if (carts.get(cart.userId()) != cart) {
+                    continue;
+                }
+                if (overBound && !cart.isClean()) {
+                    try {
+                        writeNow(cart);
+                    } catch (RuntimeException e) {
+                        dropLocked(cart, "exceeding catalog.cart.max-carts with a failed write");
+                        excess--;
+                        continue;
+                    }
+                }
+                if (cart.isClean() && carts.remove(cart.userId(), cart)) {
+                    excess--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // The database copy of the cart is used again from the next request on.
+    private void drop(CartState cart, String reason) {
+        ReentrantLock lock = lockFor(cart.userId());
+        lock.lock();
+        try {
+            dropLocked(cart, reason);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dropLocked(CartState cart, String reason) {
+        if (carts.remove(cart.userId(), cart)) {
+            dirtyUsers.remove(cart.userId());
+            log.error("Dropped the in-memory cart of user {} after {}; unwritten changes to products {} are lost",
+                    cart.userId(), reason, cart.unwritten());
+        }
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return locks[Math.floorMod(userId.hashCode(), locks.length)];
+    }
+}
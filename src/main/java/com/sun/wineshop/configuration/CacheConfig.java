@@ -0,0 +1,33 @@
+package com.sun.wineshop.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.wineshop.utils.AppConstants;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CatalogCacheProperties catalogCacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(AppConstants.PRODUCT_CACHE,
+                buildCache(catalogCacheProperties.getProducts()));
+        cacheManager.registerCustomCache(AppConstants.PRODUCT_PAGE_CACHE,
+                buildCache(catalogCacheProperties.getProductPages()));
+        return cacheManager;
+    }
+
+    private Cache<Object, Object> buildCache(CatalogCacheProperties.Spec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(spec.getTtl())
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.sun.wineshop.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "catalog.cart")
+@Data
+public class CartStoreProperties {
+    // Keep active carts in memory and write them back in batches. Off by default: it is only correct when
+    // every request of a user reaches the same instance, otherwise instances overwrite each other's lines.
+    private boolean writeBehind = false;
+    private int maxCarts = 100_000;
+    // A cart whose write keeps failing while others succeed is dropped from memory after this many attempts.
+    private int maxWriteAttempts = 5;
+    private Duration idleTimeout = Duration.ofMinutes(30);
+    private int lockStripes = 1_024;
+}
@@ -0,0 +1,27 @@
+package com.sun.wineshop.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "catalog.cache")
+@Data
+public class CatalogCacheProperties {
+    // The caches are per node and evicted only on the node that made the change, so another node can serve
+    // a changed product for up to its ttl. Pages keep a short ttl, as any product change can alter them.
+    private Spec products = new Spec(10_000, Duration.ofMinutes(10));
+    private Spec productPages = new Spec(1_000, Duration.ofMinutes(1));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+        private long maxSize;
+        private Duration ttl;
+    }
+}
@@ -1,52 +1,57 @@
 package com.sun.wineshop.configuration;
 
-import com.nimbusds.jose.JOSEException;
-import com.sun.wineshop.dto.request.VerifyTokenRequest;
-import com.sun.wineshop.service.AuthenticationService;
+import com.sun.wineshop.service.TokenRevocationService;
 import com.sun.wineshop.utils.MessageUtil;
-import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.spec.SecretKeySpec;
-import java.text.ParseException;
-import java.util.Objects;
+import java.time.Duration;
 
 @Component
-@RequiredArgsConstructor
 public class CustomJwtDecoder implements JwtDecoder {
 
-    private final SecurityProperties securityProperties;
-    private final AuthenticationService authenticationService;
+    private static final String ALGORITHM = "HS512";
+
+    private final NimbusJwtDecoder nimbusJwtDecoder;
+    private final DecodedJwtCache decodedJwtCache;
+    private final TokenRevocationService tokenRevocationService;
     private final MessageUtil messageUtil;
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
-    private static final String ALGORITHM = "HS512";
+    public CustomJwtDecoder(SecurityProperties securityProperties,
+                            TokenRevocationValidator tokenRevocationValidator,
+                            DecodedJwtCache decodedJwtCache,
+                            TokenRevocationService tokenRevocationService,
+                            MessageUtil messageUtil) {
+        SecretKeySpec secretKeySpec =
+                new SecretKeySpec(securityProperties.getJwt().getSignerKey().getBytes(), ALGORITHM);
+        nimbusJwtDecoder = NimbusJwtDecoder
+                .withSecretKey(secretKeySpec)
+                .macAlgorithm(MacAlgorithm.HS512).build();
+        nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtTimestampValidator(Duration.ZERO),
+                tokenRevocationValidator
+        ));
+        this.decodedJwtCache = decodedJwtCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.messageUtil = messageUtil;
+    }
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        Jwt jwt = decodedJwtCache.get(token, nimbusJwtDecoder::decode);
 
-        try {
-            var response = authenticationService.verifyToken(new VerifyTokenRequest(token));
-
-            if (!response.isSuccess())
-                throw new JwtException(messageUtil.getMessage("error.invalid.token"));
-        } catch (JOSEException | ParseException e) {
-            throw new JwtException(e.getMessage());
-        }
-
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec =
-                    new SecretKeySpec(securityProperties.getJwt().getSignerKey().getBytes(), ALGORITHM);
-            nimbusJwtDecoder = NimbusJwtDecoder
-                    .withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512).build();
-        }
+        // A cached token may have been revoked on another node since it was decoded.
+        if (tokenRevocationService.isRevoked(jwt.getId()))
+            throw new BadJwtException(messageUtil.getMessage("error.invalid.token"));
 
-        return nimbusJwtDecoder.decode(token);
+        return jwt;
     }
 }
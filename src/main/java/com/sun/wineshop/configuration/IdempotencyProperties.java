@@ -0,0 +1,15 @@
+package com.sun.wineshop.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "catalog.idempotency")
+@Data
+public class IdempotencyProperties {
+    private long maxSize = 100_000;
+    private Duration ttl = Duration.ofHours(24);
+}
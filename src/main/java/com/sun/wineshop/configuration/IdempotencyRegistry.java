@@ -0,0 +1,72 @@
+package com.sun.wineshop.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Runs the work for an idempotency key once per process. Concurrent duplicates wait for the
+// in-flight result and later retries are answered from a bounded store until the entry expires.
+// Failures are not stored, so a retry after an error runs the work again.
+@Component
+public class IdempotencyRegistry {
+
+    private static final String CACHE_NAME = "idempotencyResults";
+
+    private final Cache<String, Object> results;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyRegistry(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        results = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> work) {
+        Object stored = results.getIfPresent(key);
+        if (stored != null) {
+            return (T) stored;
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return (T) await(running);
+        }
+
+        try {
+            // The previous owner may have stored its result between the lookup and the claim.
+            stored = results.getIfPresent(key);
+            T result = stored != null ? (T) stored : work.get();
+            results.put(key, result);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.sun.wineshop.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "catalog.import")
+@Data
+public class ImportProperties {
+    private int workers = 2;
+    private int queueCapacity = 20;
+    private int batchSize = 1_000;
+    private int writerThreads = 2;
+    private int pipelineQueueCapacity = 4;
+    private Path workDir = Path.of(System.getProperty("java.io.tmpdir"), "wineshop-imports");
+    private Duration jobRetention = Duration.ofHours(24);
+}
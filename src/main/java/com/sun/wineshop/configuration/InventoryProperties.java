@@ -0,0 +1,18 @@
+package com.sun.wineshop.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "catalog.inventory")
+@Data
+public class InventoryProperties {
+    // Products whose stock is reserved in memory instead of on the products row.
+    private Set<Long> hotProductIds = new HashSet<>();
+    private int stripes = 8;
+    private int flushBatchSize = 5_000;
+}
@@ -50,6 +50,9 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(requests ->
                 requests
+                        // imports sit under the public product paths, so they must be matched first
+                        .requestMatchers(ProductApiPaths.IMPORT_ALL)
+                        .hasRole(UserRole.ADMIN.name())
                         // add end points with not auth here
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
                         // add end points for admin here
@@ -5,6 +5,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 
+import java.time.Duration;
+
 @Configuration
 @PropertySource("classpath:app-security-config.properties")
 @ConfigurationProperties(prefix = "security")
@@ -12,11 +14,36 @@ import org.springframework.context.annotation.PropertySource;
 public class SecurityProperties {
     private Jwt jwt;
     private Admin admin;
+    private Revocation revocation = new Revocation();
 
     @Data
     public static class Jwt {
         private String signerKey;
         private String domain;
+        private DecodeCache decodeCache = new DecodeCache();
+    }
+
+    @Data
+    public static class DecodeCache {
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Revocation {
+        // How long a token revoked on another node stays accepted here, at most.
+        private long syncIntervalMs = 5_000;
+        // Rows revoked this long before the previous sync are read again, for commit lag and clock skew between nodes.
+        private Duration syncOverlap = Duration.ofSeconds(30);
+        private Purge purge = new Purge();
+    }
+
+    @Data
+    public static class Purge {
+        private int batchSize = 1_000;
+        private int maxBatchesPerRun = 50;
+        private Duration batchPause = Duration.ofMillis(100);
+        private Duration gracePeriod = Duration.ofHours(1);
     }
 
     @Data
@@ -0,0 +1,31 @@
+package com.sun.wineshop.configuration;
+
+import com.sun.wineshop.service.TokenRevocationService;
+import com.sun.wineshop.utils.MessageUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationValidator implements OAuth2TokenValidator<Jwt> {
+
+    private final TokenRevocationService tokenRevocationService;
+    private final MessageUtil messageUtil;
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        if (tokenRevocationService.isRevoked(jwt.getId())) {
+            return OAuth2TokenValidatorResult.failure(new OAuth2Error(
+                    OAuth2ErrorCodes.INVALID_TOKEN,
+                    messageUtil.getMessage("error.invalid.token"),
+                    null
+            ));
+        }
+        return OAuth2TokenValidatorResult.success();
+    }
+}
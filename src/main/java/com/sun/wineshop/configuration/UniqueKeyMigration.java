@@ -0,0 +1,173 @@
+package com.sun.wineshop.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+// The cart upserts and the product import rely on these keys. ddl-auto=update only logs a warning when
+// it cannot add one, typically because duplicate rows already exist, after which duplicates keep piling
+// up. This merges the duplicates and adds the missing keys at startup, under a MySQL named lock so that
+// instances starting together migrate once. A failed migration is logged and the application starts anyway.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class UniqueKeyMigration implements ApplicationRunner {
+
+    private static final String LOCK_NAME = "wineshop.unique_keys";
+    // Long enough to wait out another instance running the same migration.
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    private static final String ACQUIRE = "SELECT GET_LOCK(?, ?)";
+    private static final String RELEASE = "SELECT RELEASE_LOCK(?)";
+
+    private static final String FIND_UNIQUE_KEYS = """
+            SELECT DISTINCT table_name, index_name FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND non_unique = 0
+            """;
+
+    // A statement of a merge; those with a description change rows and have their count logged.
+    record Step(String description, String sql) {
+        static Step quiet(String sql) {
+            return new Step(null, sql);
+        }
+    }
+
+    record KeyMigration(String key, String table, List<Step> merge, String addKey) {}
+
+    // In order: merging carts moves their lines, which the cart line merge then folds together.
+    static final List<KeyMigration> MIGRATIONS = List.of(
+            new KeyMigration("uk_cart_user", "cart", List.of(
+                    Step.quiet("DROP TEMPORARY TABLE IF EXISTS cart_keep"),
+                    Step.quiet("""
+                            CREATE TEMPORARY TABLE cart_keep AS
+                            SELECT user_id, MIN(id) AS keep_id FROM cart GROUP BY user_id HAVING COUNT(*) > 1
+                            """),
+                    new Step("cart lines moved to the user's oldest cart", """
+                            UPDATE cart_item ci
+                                JOIN cart c ON c.id = ci.cart_id
+                                JOIN cart_keep k ON k.user_id = c.user_id AND c.id <> k.keep_id
+                            SET ci.cart_id = k.keep_id
+                            """),
+                    new Step("duplicate carts deleted", """
+                            DELETE c FROM cart c JOIN cart_keep k ON k.user_id = c.user_id AND c.id <> k.keep_id
+                            """),
+                    Step.quiet("DROP TEMPORARY TABLE cart_keep")
+            ), "ALTER TABLE cart ADD CONSTRAINT uk_cart_user UNIQUE (user_id)"),
+            new KeyMigration("uk_cart_item_cart_product", "cart_item", List.of(
+                    Step.quiet("DROP TEMPORARY TABLE IF EXISTS cart_item_keep"),
+                    Step.quiet("""
+                            CREATE TEMPORARY TABLE cart_item_keep AS
+                            SELECT cart_id, product_id, MIN(id) AS keep_id, SUM(quantity) AS quantity
+                            FROM cart_item GROUP BY cart_id, product_id HAVING COUNT(*) > 1
+                            """),
+                    new Step("cart lines given the summed quantity of their duplicates", """
+                            UPDATE cart_item ci JOIN cart_item_keep k ON k.keep_id = ci.id SET ci.quantity = k.quantity
+                            """),
+                    new Step("duplicate cart lines deleted", """
+                            DELETE ci FROM cart_item ci
+                                JOIN cart_item_keep k ON k.cart_id = ci.cart_id AND k.product_id = ci.product_id
+                                    AND ci.id <> k.keep_id
+                            """),
+                    Step.quiet("DROP TEMPORARY TABLE cart_item_keep")
+            ), "ALTER TABLE cart_item ADD CONSTRAINT uk_cart_item_cart_product UNIQUE (cart_id, product_id)"),
+            // Later duplicates are soft deleted rather than removed, as orders may still reference them.
+            new KeyMigration("uk_products_live_name_origin_volume", "products", List.of(
+                    Step.quiet("DROP TEMPORARY TABLE IF EXISTS product_keep"),
+                    Step.quiet("""
+                            CREATE TEMPORARY TABLE product_keep AS
+                            SELECT name, origin, volume, MIN(id) AS keep_id FROM products
+                            WHERE deleted_at IS NULL GROUP BY name, origin, volume HAVING COUNT(*) > 1
+                            """),
+                    new Step("duplicate live products soft deleted", """
+                            UPDATE products p
+                                JOIN product_keep k ON k.name = p.name AND k.origin = p.origin AND k.volume = p.volume
+                                    AND p.id <> k.keep_id
+                            SET p.deleted_at = NOW()
+                            WHERE p.deleted_at IS NULL
+                            """),
+                    Step.quiet("DROP TEMPORARY TABLE product_keep")
+            ), "ALTER TABLE products ADD CONSTRAINT uk_products_live_name_origin_volume "
+                    + "UNIQUE (name, origin, volume, live_key)")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            // The named lock and the temporary tables belong to the session, so everything runs on one connection.
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                SingleConnectionDataSource session = new SingleConnectionDataSource(connection, true);
+                migrate(new JdbcTemplate(session), new TransactionTemplate(new DataSourceTransactionManager(session)));
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.error("Could not check or add the unique keys {}; duplicate carts, cart lines and products "
+                    + "are not prevented until they exist", keyNames(MIGRATIONS), e);
+        }
+    }
+
+    void migrate(JdbcTemplate session, TransactionOperations transactions) {
+        if (missing(session).isEmpty()) {
+            return;
+        }
+        Integer acquired = session.queryForObject(ACQUIRE, Integer.class, LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+        if (acquired == null || acquired != 1) {
+            log.error("Timed out waiting for another instance to add the unique keys {}", keyNames(missing(session)));
+            return;
+        }
+        try {
+            // Another instance may have added them while this one waited for the lock.
+            for (KeyMigration migration : missing(session)) {
+                migrate(session, transactions, migration);
+            }
+        } finally {
+            session.queryForObject(RELEASE, Integer.class, LOCK_NAME);
+        }
+    }
+
+    private void migrate(JdbcTemplate session, TransactionOperations transactions, KeyMigration migration) {
+        log.warn("Unique key {} is missing on {}, merging duplicate rows and adding it", migration.key(), migration.table());
+        try {
+            transactions.executeWithoutResult(status -> migration.merge().forEach(step -> {
+                if (step.description() == null) {
+                    session.execute(step.sql());
+                } else {
+                    log.warn("{}: {} {}", migration.key(), session.update(step.sql()), step.description());
+                }
+            }));
+            session.execute(migration.addKey());
+            log.warn("Added unique key {} on {}", migration.key(), migration.table());
+        } catch (DataAccessException e) {
+            log.error("Could not add unique key {} on {}; duplicate rows are not prevented until it exists",
+                    migration.key(), migration.table(), e);
+        }
+    }
+
+    private List<KeyMigration> missing(JdbcTemplate session) {
+        Set<String> present = new HashSet<>();
+        session.query(FIND_UNIQUE_KEYS, rs -> {
+            present.add(rs.getString(1).toLowerCase(Locale.ROOT) + "." + rs.getString(2).toLowerCase(Locale.ROOT));
+        });
+        return MIGRATIONS.stream()
+                .filter(migration -> !present.contains(migration.table() + "." + migration.key()))
+                .toList();
+    }
+
+    private static List<String> keyNames(List<KeyMigration> migrations) {
+        return migrations.stream().map(migration -> migration.table() + "." + migration.key()).toList();
+    }
+}
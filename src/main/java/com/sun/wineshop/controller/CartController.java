@@ -1,6 +1,7 @@
 package com.sun.wineshop.controller;
 
 import com.sun.wineshop.dto.request.AddToCartRequest;
+import com.sun.wineshop.dto.request.BulkCartUpdateRequest;
 import com.sun.wineshop.dto.request.RemoveCartItemRequest;
 import com.sun.wineshop.dto.request.UpdateCartItemRequest;
 import com.sun.wineshop.dto.response.BaseApiResponse;
@@ -70,4 +71,17 @@ public class CartController {
                 messageUtil.getMessage("cart.remove.item.success")
         ));
     }
+
+    @PutMapping(CartApiPaths.Endpoint.BULK_UPDATE)
+    public ResponseEntity<BaseApiResponse<CartResponse>> bulkUpdate(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody BulkCartUpdateRequest request) {
+        CartResponse cart = cartService.applyOperations(JwtUtil.extractUserIdFromJwt(jwt), request);
+
+        return ResponseEntity.ok(new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                cart,
+                messageUtil.getMessage("cart.bulk.update.success")
+        ));
+    }
 }
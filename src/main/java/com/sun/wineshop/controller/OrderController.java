@@ -2,6 +2,7 @@ package com.sun.wineshop.controller;
 
 import com.sun.wineshop.dto.request.PlaceOrderRequest;
 import com.sun.wineshop.dto.response.BaseApiResponse;
+import com.sun.wineshop.dto.response.CursorPageResponse;
 import com.sun.wineshop.dto.response.OrderDetailResponse;
 import com.sun.wineshop.dto.response.OrderResponse;
 import com.sun.wineshop.dto.response.OrderSummaryResponse;
@@ -29,8 +30,9 @@ public class OrderController {
     @PostMapping
     public ResponseEntity<BaseApiResponse<OrderResponse>> placeOrder(
             @AuthenticationPrincipal Jwt jwt,
+            @RequestHeader(value = AppConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody PlaceOrderRequest request) {
-        OrderResponse response = orderService.placeOrder(JwtUtil.extractUserIdFromJwt(jwt), request);
+        OrderResponse response = orderService.placeOrder(JwtUtil.extractUserIdFromJwt(jwt), request, idempotencyKey);
         return ResponseEntity.ok(new BaseApiResponse<>(
                 HttpStatus.OK.value(),
                 response,
@@ -68,6 +70,24 @@ public class OrderController {
         ));
     }
 
+    @GetMapping(OrderApiPaths.Endpoint.HISTORY_CURSOR)
+    public ResponseEntity<BaseApiResponse<CursorPageResponse<OrderSummaryResponse>>> getOrderHistoryByCursor(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        Long userId = JwtUtil.extractUserIdFromJwt(jwt);
+        CursorPageResponse<OrderSummaryResponse> orders =
+                orderService.getOrderHistoryByCursor(userId, cursor, pageSize, includeTotal);
+
+        return ResponseEntity.ok(new BaseApiResponse<>(
+                HttpStatus.OK.value(),
+                orders,
+                messageUtil.getMessage("order.history.fetched.success")
+        ));
+    }
+
     @PutMapping(OrderApiPaths.Endpoint.CANCEL)
     public ResponseEntity<BaseApiResponse<Void>> cancelOrder(
             @PathVariable Long orderId,
@@ -2,14 +2,21 @@ package com.sun.wineshop.controller;
 
 import com.sun.wineshop.dto.request.ProductSearchRequest;
 import com.sun.wineshop.dto.response.BaseApiResponse;
+import com.sun.wineshop.dto.response.CursorPageResponse;
+import com.sun.wineshop.dto.response.FacetedProductSearchResponse;
+import com.sun.wineshop.dto.response.ImportJobResponse;
 import com.sun.wineshop.dto.response.ProductResponse;
-import com.sun.wineshop.service.ProductExcelService;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.model.enums.ProductCursorSort;
+import com.sun.wineshop.service.ProductBulkService;
+import com.sun.wineshop.service.ProductImportJobService;
 import com.sun.wineshop.service.ProductService;
 import com.sun.wineshop.utils.AppConstants;
 import com.sun.wineshop.utils.MessageUtil;
 import com.sun.wineshop.utils.api.ProductApiPaths;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
@@ -18,9 +25,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(ProductApiPaths.BASE)
@@ -28,7 +33,8 @@ import java.io.IOException;
 public class ProductController {
 
     private final ProductService productService;
-    private final ProductExcelService productExcelService;
+    private final ProductBulkService productBulkService;
+    private final ProductImportJobService productImportJobService;
     private final MessageUtil messageUtil;
 
     @GetMapping
@@ -36,6 +42,17 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(pageable));
     }
 
+    @GetMapping(ProductApiPaths.Endpoint.CURSOR)
+    public ResponseEntity<CursorPageResponse<ProductResponse>> getProductsByCursor(
+        @RequestParam(defaultValue = "NEWEST") ProductCursorSort sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int pageSize,
+        @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        ProductSearchRequest noFilters = new ProductSearchRequest(null, null, null, null, null, null);
+        return ResponseEntity.ok(productService.searchProductsByCursor(noFilters, sort, cursor, pageSize, includeTotal));
+    }
+
     @PostMapping(ProductApiPaths.Endpoint.SEARCH)
     public ResponseEntity<Page<ProductResponse>> searchProducts(
         @RequestBody ProductSearchRequest request,
@@ -44,28 +61,70 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProducts(request, pageable));
     }
 
+    @PostMapping(ProductApiPaths.Endpoint.SEARCH_CURSOR)
+    public ResponseEntity<CursorPageResponse<ProductResponse>> searchProductsByCursor(
+        @RequestBody ProductSearchRequest request,
+        @RequestParam(defaultValue = "NEWEST") ProductCursorSort sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int pageSize,
+        @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(productService.searchProductsByCursor(request, sort, cursor, pageSize, includeTotal));
+    }
+
+    @PostMapping(ProductApiPaths.Endpoint.SEARCH_FACETS)
+    public ResponseEntity<FacetedProductSearchResponse> searchProductsWithFacets(
+        @RequestBody ProductSearchRequest request,
+        Pageable pageable
+    ) {
+        return ResponseEntity.ok(productService.searchProductsWithFacets(request, pageable));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
     @GetMapping(ProductApiPaths.Endpoint.EXPORT)
-    public ResponseEntity<InputStreamResource> exportProductsToExcel(){
-        ByteArrayInputStream stream = productExcelService.exportToExcel(productService.getAllProductsForExport());
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "XLSX") BulkFormat format
+    ) {
+        StreamingResponseBody body = out -> productBulkService.exportProducts(format, out);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, AppConstants.EXPORT_PRODUCT_FILE_NAME)
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(new InputStreamResource(stream));
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        String.format(AppConstants.EXPORT_PRODUCT_FILE_NAME, format.getExtension()))
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
     }
 
     @PostMapping(ProductApiPaths.Endpoint.IMPORT)
-    public ResponseEntity<BaseApiResponse<Void>> importProductsFromExcel(
-            @RequestParam(AppConstants.IMPORT_TYPE) MultipartFile file
-    ) throws IOException {
-        int importedCount = productExcelService.importFromExcel(file.getInputStream());
+    public ResponseEntity<BaseApiResponse<ImportJobResponse>> importProducts(
+            @RequestParam(AppConstants.IMPORT_TYPE) MultipartFile file,
+            @RequestParam(required = false) BulkFormat format,
+            @RequestParam(defaultValue = "INSERT") ImportMode mode
+    ) {
+        ImportJobResponse job = productImportJobService.submit(file, format, mode);
+        return ResponseEntity.accepted().body(new BaseApiResponse<>(
+                HttpStatus.ACCEPTED.value(),
+                job,
+                messageUtil.getMessage("import.job.submitted")
+        ));
+    }
+
+    @GetMapping(ProductApiPaths.Endpoint.IMPORT_JOB)
+    public ResponseEntity<BaseApiResponse<ImportJobResponse>> getImportJob(@PathVariable String jobId) {
         return ResponseEntity.ok(new BaseApiResponse<>(
                 HttpStatus.OK.value(),
-                messageUtil.getMessage("import.product.success", importedCount)
+                productImportJobService.getJob(jobId),
+                messageUtil.getMessage("import.job.fetched")
         ));
     }
+
+    @GetMapping(ProductApiPaths.Endpoint.IMPORT_JOB_ERRORS)
+    public ResponseEntity<Resource> downloadImportErrors(@PathVariable String jobId) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, AppConstants.IMPORT_ERROR_REPORT_FILE_NAME)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(productImportJobService.getErrorReport(jobId));
+    }
 }
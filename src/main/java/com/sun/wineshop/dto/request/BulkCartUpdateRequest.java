@@ -0,0 +1,7 @@
+package com.sun.wineshop.dto.request;
+
+import java.util.List;
+
+public record BulkCartUpdateRequest(
+    List<CartOperationRequest> operations
+) {}
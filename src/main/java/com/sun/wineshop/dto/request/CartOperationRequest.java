@@ -0,0 +1,9 @@
+package com.sun.wineshop.dto.request;
+
+import com.sun.wineshop.model.enums.CartOperationType;
+
+public record CartOperationRequest(
+    CartOperationType type,
+    Long productId,
+    int quantity
+) {}
@@ -0,0 +1,7 @@
+package com.sun.wineshop.dto.response;
+
+public record BulkUpsertResult(
+        int inserted,
+        int updated,
+        int unchanged
+) {}
@@ -0,0 +1,14 @@
+package com.sun.wineshop.dto.response;
+
+import java.time.LocalDateTime;
+
+// One cart line joined to its product. An empty cart yields a single row with only cartId set.
+public record CartLineRow(
+        Long cartId,
+        Long productId,
+        String productName,
+        String imageUrl,
+        Double price,
+        Integer quantity,
+        LocalDateTime deletedAt
+) {}
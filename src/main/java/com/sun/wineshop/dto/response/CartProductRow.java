@@ -0,0 +1,11 @@
+package com.sun.wineshop.dto.response;
+
+import java.time.LocalDateTime;
+
+public record CartProductRow(
+        Long id,
+        String name,
+        String imageUrl,
+        Double price,
+        LocalDateTime deletedAt
+) {}
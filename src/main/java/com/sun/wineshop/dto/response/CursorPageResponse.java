@@ -0,0 +1,13 @@
+package com.sun.wineshop.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPageResponse<T>(
+    List<T> content,
+    String nextCursor,
+    boolean hasNext,
+    Long totalElements
+) {}
@@ -0,0 +1,7 @@
+package com.sun.wineshop.dto.response;
+
+public record FacetCountResponse(
+    String value,
+    String label,
+    long count
+) {}
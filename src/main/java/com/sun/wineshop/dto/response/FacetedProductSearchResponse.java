@@ -0,0 +1,8 @@
+package com.sun.wineshop.dto.response;
+
+import org.springframework.data.domain.Page;
+
+public record FacetedProductSearchResponse(
+    Page<ProductResponse> products,
+    ProductFacetsResponse facets
+) {}
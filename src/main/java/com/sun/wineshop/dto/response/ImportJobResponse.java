@@ -0,0 +1,23 @@
+package com.sun.wineshop.dto.response;
+
+import java.time.LocalDateTime;
+
+public record ImportJobResponse(
+        String jobId,
+        String fileName,
+        String format,
+        String mode,
+        String status,
+        long rowsParsed,
+        long rowsSaved,
+        long rowsInserted,
+        long rowsUpdated,
+        long rowsUnchanged,
+        long rowsFailed,
+        double rowsPerSecond,
+        boolean hasErrorReport,
+        String errorMessage,
+        LocalDateTime submittedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {}
@@ -0,0 +1,6 @@
+package com.sun.wineshop.dto.response;
+
+public record ProductCategoryNameRow(
+        Long productId,
+        String categoryName
+) {}
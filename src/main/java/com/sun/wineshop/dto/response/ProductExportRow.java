@@ -0,0 +1,31 @@
+package com.sun.wineshop.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ProductExportRow(
+        Long id,
+        String name,
+        String description,
+        Double price,
+        Integer stockQuantity,
+        Double alcoholPercentage,
+        Integer volume,
+        String origin,
+        String imageUrl,
+        LocalDateTime createdAt,
+        List<String> categories
+) {
+    // Constructor projection; category names are attached per chunk with withCategories.
+    public ProductExportRow(Long id, String name, String description, Double price, Integer stockQuantity,
+                            Double alcoholPercentage, Integer volume, String origin, String imageUrl,
+                            LocalDateTime createdAt) {
+        this(id, name, description, price, stockQuantity, alcoholPercentage, volume, origin, imageUrl, createdAt,
+                List.of());
+    }
+
+    public ProductExportRow withCategories(List<String> categories) {
+        return new ProductExportRow(id, name, description, price, stockQuantity, alcoholPercentage, volume, origin,
+                imageUrl, createdAt, categories);
+    }
+}
@@ -0,0 +1,10 @@
+package com.sun.wineshop.dto.response;
+
+import java.util.List;
+
+public record ProductFacetsResponse(
+    List<FacetCountResponse> categories,
+    List<FacetCountResponse> origins,
+    List<FacetCountResponse> priceRanges,
+    List<FacetCountResponse> alcoholRanges
+) {}
@@ -0,0 +1,22 @@
+package com.sun.wineshop.event;
+
+import com.sun.wineshop.model.entity.Product;
+
+import java.util.List;
+
+public record ProductChangedEvent(
+        List<Product> changedProducts,
+        List<Long> removedProductIds
+) {
+    public static ProductChangedEvent changed(List<Product> products) {
+        return new ProductChangedEvent(products, List.of());
+    }
+
+    public static ProductChangedEvent changed(Product product) {
+        return changed(List.of(product));
+    }
+
+    public static ProductChangedEvent removed(Long productId) {
+        return new ProductChangedEvent(List.of(), List.of(productId));
+    }
+}
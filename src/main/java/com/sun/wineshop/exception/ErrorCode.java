@@ -14,6 +14,7 @@ public enum ErrorCode {
     USER_NOT_FOUND_FROM_TOKEN(40105, "error.user.not.found.from.token"),
     CART_NOT_FOUND(404, "error.cart.not.found"),
     PRODUCT_NOT_FOUND_IN_CART(404, "error.product.not.in.cart"),
+    CART_OPERATIONS_INVALID(400, "error.cart.operations.invalid"),
     LOGIN_FAILED(401, "error.login.failed"),
     CAN_NOT_CREATE_TOKEN(500, "error.can.not.create.token"),
     ACCESS_DENIED(403, "error.access.denied"),
@@ -22,6 +23,8 @@ public enum ErrorCode {
     CART_EMPTY(404, "error.cart.empty"),
     ORDER_NOT_FOUND(404, "error.order.not.found"),
     ORDER_CANNOT_BE_CANCELLED(400, "order.not.cancelled"),
+    IDEMPOTENCY_KEY_INVALID(400, "error.idempotency.key.invalid"),
+    INVALID_CURSOR(400, "error.invalid.cursor"),
 
     // Category
     CATEGORY_NAME_INVALID(40200, "error.category.name.invalid"),
@@ -29,6 +32,7 @@ public enum ErrorCode {
     CATEGORY_SOME_NOT_FOUND(40202, "error.some.category.not.found"),
     CATEGORY_IN_USE(40203, "error.category.in.use"),
     CATEGORY_NOT_FOUND(40204, "error.category.not.found"),
+    CATEGORY_EXISTED(40205, "error.category.existed"),
 
     // Product
     PRODUCT_NAME_INVALID(40300, "error.product.name.invalid"),
@@ -43,6 +47,8 @@ public enum ErrorCode {
     PRODUCT_CATEGORY_ID_NULL(40309, "error.product.category.id.null"),
     PRODUCT_IN_USE(40310, "error.product.in.use"),
     PRODUCT_NOT_FOUND(40311, "error.product.not.found"),
+    PRODUCT_OUT_OF_STOCK(40312, "error.product.out.of.stock"),
+    PRODUCT_EXISTED(40313, "error.product.existed"),
 
     // Review
     REVIEW_NOT_ALLOWED(40500, "error.review.not.allowed"),
@@ -53,6 +59,9 @@ public enum ErrorCode {
     IMPORT_PRODUCT_FAIL(40602, "import.product.fail"),
     IMPORT_FILE_EMPTY(40603, "import.product.empty"),
     IMPORT_MISSING_COLUMN(40604, "import.missing.column"),
+    IMPORT_JOB_NOT_FOUND(40605, "import.job.not.found"),
+    IMPORT_QUEUE_FULL(40606, "import.queue.full"),
+    IMPORT_ERROR_REPORT_NOT_FOUND(40607, "import.error.report.not.found"),
     ;
 
     private final int code;
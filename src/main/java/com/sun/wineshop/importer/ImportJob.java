@@ -0,0 +1,145 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.dto.response.BulkUpsertResult;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportJobStatus;
+import com.sun.wineshop.model.enums.ImportMode;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one import. Counters are read by pollers while the import's threads update them.
+@Getter
+public class ImportJob {
+
+    private final String id;
+    private final String fileName;
+    private final BulkFormat format;
+    private final ImportMode mode;
+    private final Path file;
+    private final Path errorReport;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsSaved = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsUnchanged = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private BufferedWriter errorWriter;
+
+    public ImportJob(String id, String fileName, BulkFormat format, ImportMode mode, Path file, Path errorReport) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.mode = mode;
+        this.file = file;
+        this.errorReport = errorReport;
+    }
+
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    public void rowsInserted(int count) {
+        rowsInserted.addAndGet(count);
+        rowsSaved.addAndGet(count);
+    }
+
+    public void rowsUpserted(BulkUpsertResult result) {
+        rowsInserted.addAndGet(result.inserted());
+        rowsUpdated.addAndGet(result.updated());
+        rowsUnchanged.addAndGet(result.unchanged());
+        rowsSaved.addAndGet(result.inserted() + result.updated() + result.unchanged());
+    }
+
+    public void rowFailed(int rowNumber, String message) {
+        rowsFailed.incrementAndGet();
+        writeError(String.valueOf(rowNumber), message);
+    }
+
+    public void rowsFailed(int firstRow, int lastRow, int count, String message) {
+        rowsFailed.addAndGet(count);
+        writeError(firstRow + "-" + lastRow, message);
+    }
+
+    public synchronized boolean hasErrorReport() {
+        return errorWriter != null || Files.exists(errorReport);
+    }
+
+    public double rowsPerSecond() {
+        if (startedAt == null) return 0;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return rowsSaved.get() * 1000.0 / millis;
+    }
+
+    public boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    public void complete() {
+        finish(ImportJobStatus.COMPLETED, null);
+    }
+
+    public void fail(String message) {
+        finish(ImportJobStatus.FAILED, message);
+    }
+
+    private void finish(ImportJobStatus finalStatus, String message) {
+        closeErrorReport();
+        errorMessage = message;
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    // Writer threads of the same import may report failures concurrently.
+    private synchronized void writeError(String rows, String message) {
+        try {
+            if (errorWriter == null) {
+                errorWriter = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8);
+                errorWriter.write("row,error");
+                errorWriter.newLine();
+            }
+            errorWriter.write(rows + "," + quote(message));
+            errorWriter.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void closeErrorReport() {
+        if (errorWriter == null) return;
+        try {
+            errorWriter.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            errorWriter = null;
+        }
+    }
+
+    private static String quote(String value) {
+        String text = value == null ? "" : value;
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,7 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.model.entity.Product;
+
+import java.util.List;
+
+public record ImportRow(int rowNumber, Product product, List<String> categoryNames) {}
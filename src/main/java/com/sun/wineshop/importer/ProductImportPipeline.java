@@ -0,0 +1,159 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.configuration.ImportProperties;
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.service.CategoryService;
+import com.sun.wineshop.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+// Parsed batches are handed to writer threads through a bounded queue, so parsing and
+// database writes overlap while at most a few batches are held in memory.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductImportPipeline {
+
+    private static final List<ImportRow> END_OF_INPUT = new ArrayList<>();
+
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final ImportProperties importProperties;
+
+    public ImportRun start(ImportJob job) {
+        return new ImportRun(job);
+    }
+
+    public class ImportRun implements AutoCloseable {
+
+        private final ImportJob job;
+        private final BlockingQueue<List<ImportRow>> queue;
+        private final ExecutorService writers;
+        private final List<Future<?>> writerTasks = new ArrayList<>();
+        // Categories are resolved once per import and shared by the writers.
+        private final Map<String, Category> categoryCache = new ConcurrentHashMap<>();
+
+        private ImportRun(ImportJob job) {
+            this.job = job;
+            this.queue = new ArrayBlockingQueue<>(importProperties.getPipelineQueueCapacity());
+            // Upserts use one writer so that a key repeated across batches is applied in file order.
+            int writerThreads = job.getMode() == ImportMode.UPSERT ? 1 : importProperties.getWriterThreads();
+            this.writers = Executors.newFixedThreadPool(writerThreads,
+                    Thread.ofPlatform().name("product-import-writer-", 0).factory());
+            for (int i = 0; i < writerThreads; i++) {
+                writerTasks.add(writers.submit(this::drain));
+            }
+        }
+
+        public int batchSize() {
+            return importProperties.getBatchSize();
+        }
+
+        // Blocks while the writers are behind.
+        public void submit(List<ImportRow> batch) {
+            if (batch.isEmpty()) return;
+            enqueue(List.copyOf(batch));
+        }
+
+        // Waits until every submitted batch has been written.
+        public void finish() {
+            writerTasks.forEach(task -> enqueue(END_OF_INPUT));
+            for (Future<?> task : writerTasks) {
+                try {
+                    task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Import interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Import writer failed", e.getCause());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            writers.shutdownNow();
+        }
+
+        private void enqueue(List<ImportRow> batch) {
+            try {
+                while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+                    if (writerTasks.stream().anyMatch(Future::isDone)) {
+                        throw new IllegalStateException("Import writer stopped unexpectedly");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            }
+        }
+
+        private Void drain() throws InterruptedException {
+            while (true) {
+                List<ImportRow> batch = queue.take();
+                if (batch == END_OF_INPUT) {
+                    return null;
+                }
+                write(batch);
+            }
+        }
+
+        private void write(List<ImportRow> batch) {
+            int firstRow = batch.get(0).rowNumber();
+            int lastRow = batch.get(batch.size() - 1).rowNumber();
+            List<ImportRow> rows = job.getMode() == ImportMode.UPSERT ? lastRowPerKey(batch) : batch;
+            try {
+                List<Product> products = new ArrayList<>(rows.size());
+                for (ImportRow row : rows) {
+                    row.product().setCategories(resolveCategories(row.categoryNames()));
+                    products.add(row.product());
+                }
+                if (job.getMode() == ImportMode.UPSERT) {
+                    job.rowsUpserted(productService.bulkUpsert(products));
+                } else {
+                    productService.bulkInsert(products);
+                    job.rowsInserted(products.size());
+                }
+            } catch (Exception e) {
+                // Superseded rows were already reported by lastRowPerKey.
+                job.rowsFailed(firstRow, lastRow, rows.size(), e.getMessage());
+                log.error("Import {} failed to save rows {} to {}: {}", job.getId(), firstRow, lastRow, e.getMessage(), e);
+            }
+        }
+
+        // A key repeated within a batch keeps its last row; the earlier ones are reported as superseded.
+        private List<ImportRow> lastRowPerKey(List<ImportRow> batch) {
+            Map<ProductKey, ImportRow> rowsByKey = new LinkedHashMap<>();
+            for (ImportRow row : batch) {
+                ImportRow previous = rowsByKey.put(ProductKey.of(row.product()), row);
+                if (previous != null) {
+                    job.rowFailed(previous.rowNumber(), "Superseded by row " + row.rowNumber() + " with the same name, origin and volume");
+                }
+            }
+            return new ArrayList<>(rowsByKey.values());
+        }
+
+        private List<Category> resolveCategories(List<String> names) {
+            List<String> missing = names.stream().filter(name -> !categoryCache.containsKey(name)).toList();
+            if (!missing.isEmpty()) {
+                synchronized (categoryCache) {
+                    List<String> stillMissing = missing.stream().filter(name -> !categoryCache.containsKey(name)).toList();
+                    if (!stillMissing.isEmpty()) {
+                        categoryCache.putAll(categoryService.findOrCreateByNames(stillMissing));
+                    }
+                }
+            }
+            return names.stream()
+                    .map(categoryCache::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+    }
+}
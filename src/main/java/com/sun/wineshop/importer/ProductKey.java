@@ -0,0 +1,13 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.utils.NameKeyUtil;
+
+// Identity of a catalog row across imports: the supplier file has no id or SKU column. Names are folded
+// like the database compares them in uk_products_live_name_origin_volume, so "Rosé" and "rose" are one key.
+public record ProductKey(String name, String origin, Integer volume) {
+
+    public static ProductKey of(Product product) {
+        return new ProductKey(NameKeyUtil.fold(product.getName()), NameKeyUtil.fold(product.getOrigin()), product.getVolume());
+    }
+}
@@ -0,0 +1,130 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.model.entity.Product;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Maps raw records of any bulk format to products and hands them to the import pipeline in batches.
+public class ProductRowParser implements ProductRowSink {
+
+    private static final List<String> REQUIRED_HEADERS = List.of(
+            "name", "description", "price", "stock", "alcohol", "volume", "origin", "imageurl", "categories"
+    );
+
+    private final ProductImportPipeline.ImportRun run;
+    private final ImportJob job;
+    private final List<ImportRow> batch = new ArrayList<>();
+    private Map<String, Integer> headerMap;
+
+    public ProductRowParser(ProductImportPipeline.ImportRun run, ImportJob job) {
+        this.run = run;
+        this.job = job;
+    }
+
+    @Override
+    public void header(List<String> columns) {
+        headerMap = mapHeaders(columns);
+        validateHeaders(headerMap);
+    }
+
+    @Override
+    public void row(int rowNumber, List<String> values) {
+        if (headerMap == null) {
+            throw new AppException(ErrorCode.IMPORT_FILE_EMPTY);
+        }
+        if (values.stream().allMatch(String::isBlank)) {
+            return;
+        }
+
+        job.rowParsed();
+        try {
+            batch.add(parseProductFromRow(rowNumber, values));
+        } catch (Exception e) {
+            job.rowFailed(rowNumber, e.getMessage());
+        }
+        if (batch.size() >= run.batchSize()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void rowFailed(int rowNumber, String message) {
+        job.rowParsed();
+        job.rowFailed(rowNumber, message);
+    }
+
+    public void finish() {
+        if (headerMap == null) {
+            throw new AppException(ErrorCode.IMPORT_FILE_EMPTY);
+        }
+        flush();
+        run.finish();
+    }
+
+    private Map<String, Integer> mapHeaders(List<String> columns) {
+        Map<String, Integer> headers = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            headers.put(columns.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""), i);
+        }
+        return headers;
+    }
+
+    private void validateHeaders(Map<String, Integer> headers) {
+        for (String requiredHeader : REQUIRED_HEADERS) {
+            if (!headers.containsKey(requiredHeader)) {
+                throw new AppException(ErrorCode.IMPORT_MISSING_COLUMN, requiredHeader);
+            }
+        }
+    }
+
+    private ImportRow parseProductFromRow(int rowNumber, List<String> values) {
+        Function<String, String> column = header -> {
+            int index = headerMap.get(header);
+            return index < values.size() && values.get(index) != null ? values.get(index).trim() : "";
+        };
+
+        Product product = Product.builder()
+                .name(column.apply("name"))
+                .description(column.apply("description"))
+                .price(parseNumber(column, "price"))
+                .stockQuantity((int) parseNumber(column, "stock"))
+                .alcoholPercentage(parseNumber(column, "alcohol"))
+                .volume((int) parseNumber(column, "volume"))
+                .origin(column.apply("origin"))
+                .imageUrl(column.apply("imageurl"))
+                .build();
+
+        return new ImportRow(rowNumber, product, parseCategoryNames(column.apply("categories")));
+    }
+
+    // An empty cell reads as 0; anything else must be a number, or the row is rejected.
+    private double parseNumber(Function<String, String> column, String header) {
+        String value = column.apply(header);
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in column " + header + ": " + value);
+        }
+    }
+
+    private List<String> parseCategoryNames(String rawCategory) {
+        if (rawCategory.isEmpty()) return List.of();
+
+        return Arrays.stream(rawCategory.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private void flush() {
+        run.submit(batch);
+        batch.clear();
+    }
+}
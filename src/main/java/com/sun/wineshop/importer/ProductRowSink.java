@@ -0,0 +1,12 @@
+package com.sun.wineshop.importer;
+
+import java.util.List;
+
+// Receives the records of an import file in order: the header once, then one call per data row.
+public interface ProductRowSink {
+    void header(List<String> columns);
+
+    void row(int rowNumber, List<String> values);
+
+    void rowFailed(int rowNumber, String message);
+}
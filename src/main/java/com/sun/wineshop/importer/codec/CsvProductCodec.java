@@ -0,0 +1,187 @@
+package com.sun.wineshop.importer.codec;
+
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.importer.ProductRowSink;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.utils.AppConstants;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// RFC 4180 CSV: comma separated, double-quote escaping, quoted fields may span lines.
+@Component
+public class CsvProductCodec implements ProductBulkCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public BulkFormat format() {
+        return BulkFormat.CSV;
+    }
+
+    @Override
+    public void write(OutputStream out, Consumer<Consumer<List<ProductExportRow>>> rowSource) throws Exception {
+        ProductExportColumn[] columns = ProductExportColumn.values();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(AppConstants.DATETIME_FORMAT);
+        Writer writer = new BufferedWriter(
+                Channels.newWriter(Channels.newChannel(out), StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) writer.write(',');
+            writeField(writer, columns[i].getLabel());
+        }
+        writer.write("\r\n");
+
+        rowSource.accept(chunk -> {
+            try {
+                for (ProductExportRow row : chunk) {
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) writer.write(',');
+                        Object value = columns[i].valueOf(row);
+                        if (value instanceof LocalDateTime dateTime) {
+                            writeField(writer, dateTime.format(formatter));
+                        } else if (value instanceof List<?> values) {
+                            writeField(writer, ProductExportColumn.join(values));
+                        } else if (value != null) {
+                            writeField(writer, value.toString());
+                        }
+                    }
+                    writer.write("\r\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    @Override
+    public void read(Path file, ProductRowSink sink) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8)) {
+            RecordReader records = new RecordReader(reader);
+
+            List<String> header = records.next();
+            if (header == null) {
+                return;
+            }
+            // Spreadsheet tools often prepend a byte order mark.
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            sink.header(header);
+
+            List<String> values;
+            while ((values = records.next()) != null) {
+                sink.row(records.recordNumber(), values);
+            }
+        }
+    }
+
+    private void writeField(Writer writer, String value) throws IOException {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Hand-rolled buffer instead of BufferedReader: single-char reads there take a lock per call.
+    private static class RecordReader {
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder field = new StringBuilder();
+        private int position;
+        private int limit;
+        private int recordNumber;
+
+        RecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        int recordNumber() {
+            return recordNumber;
+        }
+
+        // Returns the next record, or null at end of input.
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+
+            recordNumber++;
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++];
+        }
+
+        private int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        private boolean fill() throws IOException {
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.sun.wineshop.importer.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.importer.ProductRowSink;
+import com.sun.wineshop.model.enums.BulkFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+// One JSON object per line. The first object's field names act as the header row;
+// array values (e.g. categories) are joined with commas like the tabular formats.
+@Component
+@RequiredArgsConstructor
+public class NdjsonProductCodec implements ProductBulkCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public BulkFormat format() {
+        return BulkFormat.NDJSON;
+    }
+
+    @Override
+    public void write(OutputStream out, Consumer<Consumer<List<ProductExportRow>>> rowSource) throws Exception {
+        ProductExportColumn[] columns = ProductExportColumn.values();
+        Writer writer = new BufferedWriter(
+                Channels.newWriter(Channels.newChannel(out), StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        // Not closed: that would close the response stream, which belongs to the caller.
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        rowSource.accept(chunk -> {
+            try {
+                for (ProductExportRow row : chunk) {
+                    generator.writeStartObject();
+                    for (ProductExportColumn column : columns) {
+                        Object value = column.valueOf(row);
+                        generator.writeFieldName(column.getKey());
+                        if (value instanceof Number number) {
+                            generator.writeNumber(number.toString());
+                        } else if (value instanceof List<?> values) {
+                            generator.writeStartArray();
+                            for (Object element : values) {
+                                generator.writeString(String.valueOf(element));
+                            }
+                            generator.writeEndArray();
+                        } else if (value != null) {
+                            generator.writeString(value.toString());
+                        } else {
+                            generator.writeNull();
+                        }
+                    }
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    @Override
+    public void read(Path file, ProductRowSink sink) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            List<String> header = null;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    if (header == null) throw e;
+                    sink.rowFailed(lineNumber, e.getOriginalMessage());
+                    continue;
+                }
+                if (!node.isObject()) {
+                    if (header == null) throw new IOException("Line " + lineNumber + " is not a JSON object");
+                    sink.rowFailed(lineNumber, "Not a JSON object");
+                    continue;
+                }
+
+                if (header == null) {
+                    header = new ArrayList<>();
+                    node.fieldNames().forEachRemaining(header::add);
+                    sink.header(header);
+                }
+                sink.row(lineNumber, values(node, header));
+            }
+        }
+    }
+
+    private List<String> values(JsonNode node, List<String> header) {
+        List<String> values = new ArrayList<>(header.size());
+        for (String name : header) {
+            JsonNode value = node.get(name);
+            if (value == null || value.isNull()) {
+                values.add("");
+            } else if (value.isArray()) {
+                StringBuilder joined = new StringBuilder();
+                for (Iterator<JsonNode> it = value.elements(); it.hasNext(); ) {
+                    if (!joined.isEmpty()) joined.append(',');
+                    joined.append(it.next().asText());
+                }
+                values.add(joined.toString());
+            } else {
+                values.add(value.asText());
+            }
+        }
+        return values;
+    }
+}
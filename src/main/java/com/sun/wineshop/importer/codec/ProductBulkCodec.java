@@ -0,0 +1,19 @@
+package com.sun.wineshop.importer.codec;
+
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.importer.ProductRowSink;
+import com.sun.wineshop.model.enums.BulkFormat;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+// One bulk file format. Both directions stream: export pulls rows chunk by chunk, import pushes records to the sink.
+public interface ProductBulkCodec {
+    BulkFormat format();
+
+    void write(OutputStream out, Consumer<Consumer<List<ProductExportRow>>> rowSource) throws Exception;
+
+    void read(Path file, ProductRowSink sink) throws Exception;
+}
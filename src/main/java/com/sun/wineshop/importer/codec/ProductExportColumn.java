@@ -0,0 +1,39 @@
+package com.sun.wineshop.importer.codec;
+
+import com.sun.wineshop.dto.response.ProductExportRow;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Export columns shared by every format: header label for tabular files, field name for JSON.
+@Getter
+@RequiredArgsConstructor
+public enum ProductExportColumn {
+    ID("ID", "id", ProductExportRow::id),
+    NAME("Name", "name", ProductExportRow::name),
+    DESCRIPTION("Description", "description", ProductExportRow::description),
+    PRICE("Price", "price", ProductExportRow::price),
+    STOCK("Stock", "stock", ProductExportRow::stockQuantity),
+    ALCOHOL("Alcohol %", "alcohol", ProductExportRow::alcoholPercentage),
+    VOLUME("Volume", "volume", ProductExportRow::volume),
+    ORIGIN("Origin", "origin", ProductExportRow::origin),
+    IMAGE_URL("Image URL", "imageUrl", ProductExportRow::imageUrl),
+    CREATED_AT("Created At", "createdAt", ProductExportRow::createdAt),
+    CATEGORIES("Categories", "categories", ProductExportRow::categories);
+
+    private final String label;
+    private final String key;
+    private final Function<ProductExportRow, Object> extractor;
+
+    public Object valueOf(ProductExportRow row) {
+        return extractor.apply(row);
+    }
+
+    // List values are comma-joined in tabular formats, the separator the import splits categories on.
+    public static String join(List<?> values) {
+        return values.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
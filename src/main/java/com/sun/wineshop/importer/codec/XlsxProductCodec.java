@@ -0,0 +1,154 @@
+package com.sun.wineshop.importer.codec;
+
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.importer.ProductRowSink;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.utils.AppConstants;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+
+@Component
+public class XlsxProductCodec implements ProductBulkCodec {
+
+    // Rows kept in memory by SXSSF; older rows are flushed to a temp file.
+    private static final int EXPORT_ROW_WINDOW = 100;
+
+    @Override
+    public BulkFormat format() {
+        return BulkFormat.XLSX;
+    }
+
+    @Override
+    public void write(OutputStream out, Consumer<Consumer<List<ProductExportRow>>> rowSource) throws Exception {
+        ProductExportColumn[] columns = ProductExportColumn.values();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Products");
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < columns.length; i++) {
+                headerRow.createCell(i).setCellValue(columns[i].getLabel());
+            }
+
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(AppConstants.DATETIME_FORMAT);
+            int[] rowIdx = {1};
+            rowSource.accept(chunk -> {
+                for (ProductExportRow p : chunk) {
+                    Row row = sheet.createRow(rowIdx[0]++);
+                    for (int i = 0; i < columns.length; i++) {
+                        Object value = columns[i].valueOf(p);
+                        Cell cell = row.createCell(i);
+                        if (value instanceof Number number) {
+                            cell.setCellValue(number.doubleValue());
+                        } else if (value instanceof LocalDateTime dateTime) {
+                            cell.setCellValue(dateTime.format(formatter));
+                        } else if (value instanceof List<?> values) {
+                            cell.setCellValue(ProductExportColumn.join(values));
+                        } else if (value != null) {
+                            cell.setCellValue(value.toString());
+                        }
+                    }
+                }
+            });
+
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    // Streams the sheet XML through SAX, so only the current row is held in memory.
+    @Override
+    public void read(Path file, ProductRowSink sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new AppException(ErrorCode.IMPORT_FILE_EMPTY);
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), null, strings, new SheetHandler(sink), rawNumberFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    // Numbers come through unformatted so that "1,200.00" style cell formats still parse.
+    private DataFormatter rawNumberFormatter() {
+        return new DataFormatter() {
+            @Override
+            public String formatRawCellContents(double value, int formatIndex, String formatString) {
+                if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                    return super.formatRawCellContents(value, formatIndex, formatString);
+                }
+                return NumberToTextConverter.toText(value);
+            }
+        };
+    }
+
+    private static class SheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ProductRowSink sink;
+        private final List<String> cells = new ArrayList<>();
+        private boolean headerSeen;
+        private int currentColumn;
+
+        SheetHandler(ProductRowSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            currentColumn = -1;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            currentColumn = cellReference == null ? currentColumn + 1 : new CellReference(cellReference).getCol();
+            // Skipped (blank) cells are not reported, so pad up to the current column.
+            while (cells.size() < currentColumn) {
+                cells.add("");
+            }
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!headerSeen) {
+                headerSeen = true;
+                sink.header(List.copyOf(cells));
+                return;
+            }
+            sink.row(rowNum + 1, cells);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sun.wineshop.inventory;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ownership of the hot stock ledger, as a MySQL named lock held on a dedicated connection.
+// Every ledger is seeded with the full committed stock, so a second instance running one would sell
+// the same units again; only the lock holder may run it, and the lock goes away with its connection.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotStockLease {
+
+    private static final String LOCK_NAME = "wineshop.hot_stock_ledger";
+    private static final String ACQUIRE = "SELECT GET_LOCK(?, 0)";
+    private static final String IS_HELD = "SELECT IS_USED_LOCK(?) = CONNECTION_ID()";
+    private static final String RELEASE = "SELECT RELEASE_LOCK(?)";
+
+    private final DataSource dataSource;
+    private Connection connection;
+
+    synchronized boolean acquire() throws SQLException {
+        if (connection != null) {
+            return true;
+        }
+        Connection candidate = dataSource.getConnection();
+        try {
+            candidate.setAutoCommit(true);
+            if (queryFlag(candidate, ACQUIRE)) {
+                connection = candidate;
+                return true;
+            }
+        } catch (SQLException e) {
+            candidate.close();
+            throw e;
+        }
+        candidate.close();
+        return false;
+    }
+
+    // Also keeps the dedicated connection from being closed as idle by the server.
+    synchronized boolean isHeld() {
+        if (connection == null) {
+            return false;
+        }
+        try {
+            return queryFlag(connection, IS_HELD);
+        } catch (SQLException e) {
+            log.warn("Could not check the hot stock ledger lock: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        // Closing only returns the connection to the pool, where the session and its lock would live on.
+        try (Connection held = connection) {
+            queryFlag(held, RELEASE);
+        } catch (SQLException e) {
+            log.warn("Failed to release the hot stock ledger lock: {}", e.getMessage());
+        } finally {
+            connection = null;
+        }
+    }
+
+    private static boolean queryFlag(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.sun.wineshop.inventory;
+
+import com.sun.wineshop.configuration.InventoryProperties;
+import com.sun.wineshop.repository.InventoryJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory stock for flagged hot products. Reservations never touch the products row; the
+// durable decrement is applied later by StockLedgerFlusher. Until the ledger is loaded every
+// product goes through the database path.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotStockLedger {
+
+    private final InventoryProperties inventoryProperties;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final Map<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isTracked(Long productId) {
+        return ready && stocks.containsKey(productId);
+    }
+
+    // All or nothing: returns the products that were short, having put back anything already taken.
+    public List<Long> reserve(SortedMap<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            StripedStock stock = stocks.get(entry.getKey());
+            if (stock == null || !stock.tryReserve(entry.getValue())) {
+                taken.forEach(done -> complete(done.getKey(), done.getValue(), false));
+                return List.of(entry.getKey());
+            }
+            taken.add(entry);
+        }
+        return List.of();
+    }
+
+    // Called once the reserving transaction ends; a rollback returns the quantities.
+    public void complete(Map<Long, Integer> quantities, boolean committed) {
+        quantities.forEach((productId, quantity) -> complete(productId, quantity, committed));
+    }
+
+    public void release(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            StripedStock stock = stocks.get(productId);
+            if (stock != null) {
+                stock.add(quantity);
+            }
+        });
+    }
+
+    // Rebuilt from committed orders: row stock minus lines not yet applied, which is exact after a restart.
+    void load() {
+        Set<Long> hotIds = inventoryProperties.getHotProductIds();
+        inventoryJdbcRepository.committedAvailable(hotIds).forEach((productId, available) ->
+                stocks.put(productId, new StripedStock(inventoryProperties.getStripes(), available)));
+        ready = true;
+        log.info("Hot stock ledger loaded for products {}", stocks.keySet());
+    }
+
+    StripedStock stock(Long productId) {
+        return stocks.get(productId);
+    }
+
+    // Sends every product back to the database path; lines already reserved are still applied by the flusher.
+    void stop() {
+        ready = false;
+        stocks.clear();
+    }
+
+    // Brings the counters in line with the database, e.g. after an admin changed stock. Reservations
+    // racing with the read are subtracted twice rather than missed, so an error errs towards underselling
+    // and disappears on the next quiet run.
+    void reconcile() {
+        if (!ready || stocks.isEmpty()) {
+            return;
+        }
+        Map<Long, long[]> before = new HashMap<>();
+        stocks.forEach((productId, stock) -> before.put(productId, new long[]{
+                stock.reserved.sum(), stock.available(), stock.inFlight.sum()
+        }));
+
+        Map<Long, Integer> committed = inventoryJdbcRepository.committedAvailable(stocks.keySet());
+        stocks.forEach((productId, stock) -> {
+            long[] snapshot = before.get(productId);
+            long reservedDuring = stock.reserved.sum() - snapshot[0];
+            long target = committed.getOrDefault(productId, 0) - snapshot[2] - reservedDuring;
+            long delta = Math.max(0, target) - snapshot[1];
+            if (delta > 0) {
+                stock.add((int) delta);
+            } else if (delta < 0) {
+                stock.remove((int) -delta);
+            }
+            if (delta != 0) {
+                log.debug("Hot stock for product {} adjusted by {}", productId, delta);
+            }
+        });
+    }
+
+    private void complete(Long productId, int quantity, boolean committed) {
+        StripedStock stock = stocks.get(productId);
+        if (stock == null) {
+            return;
+        }
+        stock.inFlight.add(-quantity);
+        if (!committed) {
+            stock.add(quantity);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sun.wineshop.inventory;
+
+import com.sun.wineshop.configuration.InventoryProperties;
+import com.sun.wineshop.repository.InventoryJdbcRepository;
+import com.sun.wineshop.utils.AppConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLedgerFlusher {
+
+    // Bounds one scheduled run so a backlog cannot hold the scheduler thread indefinitely.
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final InventoryProperties inventoryProperties;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final HotStockLedger hotStockLedger;
+    private final HotStockLease hotStockLease;
+    private final CacheManager cacheManager;
+
+    // The ledger is single-instance: startup fails while another instance owns it.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() throws SQLException {
+        if (!inventoryProperties.getHotProductIds().isEmpty() && !hotStockLease.acquire()) {
+            throw new IllegalStateException("Another instance owns the hot stock ledger; "
+                    + "catalog.inventory.hot-product-ids may only be set on a single instance");
+        }
+        Thread.ofVirtual().name("hot-stock-loader").start(() -> {
+            try {
+                // Lines left pending by the previous run are applied first, so products that are no longer
+                // flagged hot start from a row value that already reflects them.
+                drain(Integer.MAX_VALUE);
+                hotStockLedger.load();
+            } catch (Exception e) {
+                log.error("Failed to load hot stock ledger, all products stay on database reservations", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            if (!inventoryProperties.getHotProductIds().isEmpty() && hotStockLedger.isReady() && !hotStockLease.isHeld()) {
+                log.error("Lost the hot stock ledger lock, hot products fall back to database reservations");
+                hotStockLedger.stop();
+                hotStockLease.release();
+            }
+            drain(MAX_BATCHES_PER_RUN);
+            hotStockLedger.reconcile();
+        } catch (Exception e) {
+            log.warn("Hot stock flush failed, pending lines are retried on the next run", e);
+        }
+    }
+
+    private void drain(int maxBatches) {
+        Cache cache = cacheManager.getCache(AppConstants.PRODUCT_CACHE);
+        for (int i = 0; i < maxBatches; i++) {
+            InventoryJdbcRepository.AppliedStock applied =
+                    inventoryJdbcRepository.applyPending(inventoryProperties.getFlushBatchSize());
+            if (cache != null) {
+                applied.decrements().keySet().forEach(cache::evict);
+            }
+            applied.shortfalls().forEach((productId, quantity) ->
+                    log.error("Committed orders exceed the stock of product {} by {}; stock set to 0", productId, quantity));
+            if (applied.lines() < inventoryProperties.getFlushBatchSize()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sun.wineshop.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Available quantity of one product spread over several counters, so concurrent checkouts
+// mostly CAS on different cache lines instead of all spinning on one.
+class StripedStock {
+
+    private final AtomicInteger[] stripes;
+    // Quantities reserved by transactions that have not completed yet.
+    final LongAdder inFlight = new LongAdder();
+    // Monotonic total of reserved quantities; lets reconciliation see reservations made while it ran.
+    final LongAdder reserved = new LongAdder();
+
+    StripedStock(int stripeCount, int available) {
+        stripes = new AtomicInteger[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicInteger(available / stripeCount + (i < available % stripeCount ? 1 : 0));
+        }
+    }
+
+    // Takes the quantity from the caller's home stripe, gathering from the others when it runs short.
+    boolean tryReserve(int quantity) {
+        int home = ThreadLocalRandom.current().nextInt(stripes.length);
+        int taken = 0;
+        for (int i = 0; i < stripes.length && taken < quantity; i++) {
+            taken += take(stripes[(home + i) % stripes.length], quantity - taken);
+        }
+        if (taken < quantity) {
+            add(taken);
+            return false;
+        }
+        inFlight.add(quantity);
+        reserved.add(quantity);
+        return true;
+    }
+
+    void add(int quantity) {
+        if (quantity > 0) {
+            stripes[ThreadLocalRandom.current().nextInt(stripes.length)].addAndGet(quantity);
+        }
+    }
+
+    // Removes up to quantity, never driving a stripe below zero.
+    void remove(int quantity) {
+        int removed = 0;
+        for (int i = 0; i < stripes.length && removed < quantity; i++) {
+            removed += take(stripes[i], quantity - removed);
+        }
+    }
+
+    int available() {
+        int sum = 0;
+        for (AtomicInteger stripe : stripes) {
+            sum += stripe.get();
+        }
+        return sum;
+    }
+
+    private int take(AtomicInteger stripe, int wanted) {
+        while (true) {
+            int current = stripe.get();
+            int take = Math.min(current, wanted);
+            if (take == 0 || stripe.compareAndSet(current, current - take)) {
+                return take;
+            }
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.sun.wineshop.mapper;
 
 import com.sun.wineshop.dto.response.*;
+import com.sun.wineshop.importer.ImportJob;
 import com.sun.wineshop.model.entity.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ToDtoMappers {
 
@@ -24,7 +24,7 @@ public class ToDtoMappers {
     public static ProductResponse toProductResponse(Product product) {
         List<CategoryResponse> categoryResponses = product.getCategories().stream()
                 .map(ToDtoMappers::toCategoryResponse)
-                .collect(Collectors.toList());
+                .toList();
 
         return new ProductResponse(
                 product.getId(),
@@ -84,4 +84,26 @@ public class ToDtoMappers {
                 order.getCreatedAt()
         );
     }
+
+    public static ImportJobResponse toImportJobResponse(ImportJob job) {
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFileName(),
+                job.getFormat().name(),
+                job.getMode().name(),
+                job.getStatus().name(),
+                job.getRowsParsed().get(),
+                job.getRowsSaved().get(),
+                job.getRowsInserted().get(),
+                job.getRowsUpdated().get(),
+                job.getRowsUnchanged().get(),
+                job.getRowsFailed().get(),
+                job.rowsPerSecond(),
+                job.isFinished() && job.hasErrorReport(),
+                job.getErrorMessage(),
+                job.getSubmittedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt()
+        );
+    }
 }
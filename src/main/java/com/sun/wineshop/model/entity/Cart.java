@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cart_user", columnNames = "user_id"))
 @Data
 public class Cart {
     @Id
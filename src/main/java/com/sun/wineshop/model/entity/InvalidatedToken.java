@@ -1,13 +1,20 @@
 package com.sun.wineshop.model.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_invalidated_token_expiry_time", columnList = "expiry_time"),
+        @Index(name = "idx_invalidated_token_revoked_at", columnList = "revoked_at")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -16,5 +23,9 @@ import java.util.Date;
 public class InvalidatedToken {
     @Id
     String id;
+    @Column(name = "expiry_time")
     Date expiryTime;
+    // Null for tokens revoked before the column existed; those are only read by the full load at startup.
+    @Column(name = "revoked_at")
+    Date revokedAt;
 }
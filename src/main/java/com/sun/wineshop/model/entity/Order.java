@@ -10,7 +10,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(
+        name = "orders",
+        indexes = @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_orders_user_idempotency_key", columnNames = {"user_id", "idempotency_key"})
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,6 +31,9 @@ public class Order {
     private String address;
     private String phoneNumber;
 
+    @Column(length = 64)
+    private String idempotencyKey;
+
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
@@ -2,9 +2,10 @@ package com.sun.wineshop.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_stock_applied", columnList = "stock_applied"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,4 +24,10 @@ public class OrderItem {
 
     private int quantity;
     private double unitPrice;
+
+    // False while the line was reserved in the hot stock ledger and products.stock_quantity is not yet decremented.
+    @Builder.Default
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private boolean stockApplied = true;
 }
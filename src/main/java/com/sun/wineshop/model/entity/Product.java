@@ -12,7 +12,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id")
+}, uniqueConstraints = @UniqueConstraint(
+        name = "uk_products_live_name_origin_volume",
+        columnNames = {"name", "origin", "volume", "live_key"}
+))
 @Data
 @Builder
 @NoArgsConstructor
@@ -36,6 +42,10 @@ public class Product {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     private LocalDateTime deletedAt;
+    // 1 while live and NULL once soft-deleted, so the unique key only covers live products.
+    @Column(insertable = false, updatable = false,
+            columnDefinition = "TINYINT AS (IF(deleted_at IS NULL, 1, NULL)) STORED")
+    private Integer liveKey;
 
     @ManyToMany
     @JoinTable(
@@ -0,0 +1,30 @@
+package com.sun.wineshop.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+@Getter
+@RequiredArgsConstructor
+public enum BulkFormat {
+    XLSX("xlsx", "application/octet-stream"),
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", "application/x-ndjson");
+
+    private final String extension;
+    private final String contentType;
+
+    // Falls back to XLSX, the format the import endpoint accepted before the others existed.
+    public static BulkFormat fromFileName(String fileName) {
+        if (fileName != null) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            for (BulkFormat format : values()) {
+                if (lower.endsWith("." + format.extension)) {
+                    return format;
+                }
+            }
+        }
+        return XLSX;
+    }
+}
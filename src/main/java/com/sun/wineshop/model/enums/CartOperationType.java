@@ -0,0 +1,7 @@
+package com.sun.wineshop.model.enums;
+
+public enum CartOperationType {
+    ADD,
+    SET,
+    REMOVE
+}
@@ -0,0 +1,5 @@
+package com.sun.wineshop.model.enums;
+
+public enum ImportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,20 @@
+package com.sun.wineshop.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+// Sort attributes may be null; such products sort below every value, as the database orders NULL, then by id.
+@Getter
+@RequiredArgsConstructor
+public enum ProductCursorSort {
+    NEWEST("createdAt", true, LocalDateTime::parse),
+    PRICE_ASC("price", false, Double::valueOf),
+    PRICE_DESC("price", true, Double::valueOf);
+
+    private final String attribute;
+    private final boolean descending;
+    private final Function<String, Comparable<?>> valueParser;
+}
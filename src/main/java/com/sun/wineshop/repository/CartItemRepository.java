@@ -1,7 +1,69 @@
 package com.sun.wineshop.repository;
 
+import com.sun.wineshop.dto.response.CartLineRow;
 import com.sun.wineshop.model.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {}
+import java.util.List;
 
+// Single-statement line mutations addressed by user and product, relying on the unique
+// (cart_id, product_id) key. Each returns 0 when the user has no cart row yet.
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    @Query("""
+        SELECT new com.sun.wineshop.dto.response.CartLineRow(
+            c.id, p.id, p.name, p.imageUrl, p.price, ci.quantity, p.deletedAt
+        )
+        FROM Cart c
+        LEFT JOIN c.items ci
+        LEFT JOIN ci.product p
+        WHERE c.userId = :userId
+        ORDER BY ci.id
+    """)
+    List<CartLineRow> findCartLines(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") Long cartId);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO cart_item (cart_id, product_id, quantity)
+        SELECT c.id, :productId, :quantity FROM cart c WHERE c.user_id = :userId
+        ON DUPLICATE KEY UPDATE quantity = quantity + :quantity
+    """, nativeQuery = true)
+    int addQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO cart_item (cart_id, product_id, quantity)
+        SELECT c.id, :productId, :quantity FROM cart c WHERE c.user_id = :userId
+        ON DUPLICATE KEY UPDATE quantity = :quantity
+    """, nativeQuery = true)
+    int setQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE cart_item ci
+        JOIN cart c ON c.id = ci.cart_id
+        SET ci.quantity = :quantity
+        WHERE c.user_id = :userId AND ci.product_id = :productId
+    """, nativeQuery = true)
+    int updateQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE ci FROM cart_item ci
+        JOIN cart c ON c.id = ci.cart_id
+        WHERE c.user_id = :userId AND ci.product_id = :productId
+    """, nativeQuery = true)
+    int deleteLine(@Param("userId") Long userId, @Param("productId") Long productId);
+}
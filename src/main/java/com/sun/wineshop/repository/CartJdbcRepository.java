@@ -0,0 +1,130 @@
+package com.sun.wineshop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+// Reads and writes carts by line, without loading the entity graph.
+@Repository
+@RequiredArgsConstructor
+public class CartJdbcRepository {
+
+    private static final String FIND_CART_LINES = """
+            SELECT c.id, ci.product_id, ci.quantity
+            FROM cart c
+            LEFT JOIN cart_item ci ON ci.cart_id = c.id
+            WHERE c.user_id = ?
+            ORDER BY c.id, ci.id
+            """;
+    private static final String INSERT_CART_IF_ABSENT =
+            "INSERT INTO cart (user_id) VALUES (?) ON DUPLICATE KEY UPDATE user_id = user_id";
+    private static final String UPSERT_LINE = """
+            INSERT INTO cart_item (cart_id, product_id, quantity) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)
+            """;
+    private static final String DELETE_LINE = "DELETE FROM cart_item WHERE cart_id = ? AND product_id = ?";
+    private static final String FIND_CART_IDS = "SELECT user_id, id FROM cart WHERE user_id IN (%s)";
+    private static final String FIND_EXISTING_PRODUCTS = "SELECT id FROM products WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record StoredCart(Long cartId, LinkedHashMap<Long, Integer> lines) {}
+
+    // Quantity 0 removes the line. A null cartId means the cart row does not exist yet.
+    public record CartWrite(Long userId, Long cartId, Map<Long, Integer> quantities) {}
+
+    public StoredCart findByUserId(Long userId) {
+        return findByUserId(userId, FIND_CART_LINES);
+    }
+
+    // Locks the cart and its lines until the surrounding transaction ends; single-line
+    // statements for the same cart wait rather than interleave.
+    @Transactional
+    public StoredCart findByUserIdForUpdate(Long userId) {
+        return findByUserId(userId, FIND_CART_LINES + " FOR UPDATE");
+    }
+
+    private StoredCart findByUserId(Long userId, String sql) {
+        LinkedHashMap<Long, Integer> lines = new LinkedHashMap<>();
+        Long[] cartId = {null};
+        jdbcTemplate.query(sql, rs -> {
+            long id = rs.getLong(1);
+            if (cartId[0] == null) {
+                cartId[0] = id;
+            }
+            long productId = rs.getLong(2);
+            if (id == cartId[0] && !rs.wasNull()) {
+                lines.merge(productId, rs.getInt(3), Integer::sum);
+            }
+        }, userId);
+        return new StoredCart(cartId[0], lines);
+    }
+
+    // Applies the writes of many carts in one transaction and returns the ids of carts created, by user id.
+    @Transactional
+    public Map<Long, Long> writeAll(List<CartWrite> writes) {
+        List<CartWrite> effective = writes.stream()
+                .filter(write -> write.cartId() != null || write.quantities().values().stream().anyMatch(q -> q > 0))
+                .toList();
+        Map<Long, Long> created = insertCarts(effective.stream().filter(write -> write.cartId() == null).toList());
+
+        // A product deleted meanwhile would fail the whole batch on its foreign key; its line is dropped instead.
+        Set<Long> existing = existingProducts(effective.stream()
+                .flatMap(write -> write.quantities().keySet().stream())
+                .distinct()
+                .toList());
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (CartWrite write : effective) {
+            Long cartId = write.cartId() != null ? write.cartId() : created.get(write.userId());
+            write.quantities().forEach((productId, quantity) -> {
+                if (quantity > 0 && existing.contains(productId)) {
+                    upserts.add(new Object[]{cartId, productId, quantity});
+                } else {
+                    deletes.add(new Object[]{cartId, productId});
+                }
+            });
+        }
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_LINE, deletes);
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_LINE, upserts);
+        }
+        return created;
+    }
+
+    // Safe under concurrent first writes thanks to the unique key on cart.user_id.
+    public void insertCartIfAbsent(Long userId) {
+        jdbcTemplate.update(INSERT_CART_IF_ABSENT, userId);
+    }
+
+    // Carts created by another writer in the meantime are reused rather than failing the batch on the unique key.
+    private Map<Long, Long> insertCarts(List<CartWrite> newCarts) {
+        if (newCarts.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> userIds = newCarts.stream().map(CartWrite::userId).toList();
+        jdbcTemplate.batchUpdate(INSERT_CART_IF_ABSENT, userIds.stream().map(id -> new Object[]{id}).toList());
+
+        String sql = String.format(FIND_CART_IDS, String.join(",", Collections.nCopies(userIds.size(), "?")));
+        Map<Long, Long> created = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            created.put(rs.getLong(1), rs.getLong(2));
+        }, userIds.toArray());
+        return created;
+    }
+
+    private Set<Long> existingProducts(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Set.of();
+        }
+        String sql = String.format(FIND_EXISTING_PRODUCTS, String.join(",", Collections.nCopies(productIds.size(), "?")));
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, productIds.toArray()));
+    }
+}
@@ -2,9 +2,20 @@ package com.sun.wineshop.repository;
 
 import com.sun.wineshop.model.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
+
+    // Cart, lines and products in one statement, for checkout.
+    @Query("""
+        SELECT DISTINCT c FROM Cart c
+        LEFT JOIN FETCH c.items i
+        LEFT JOIN FETCH i.product
+        WHERE c.userId = :userId
+    """)
+    Optional<Cart> findWithItemsAndProductsByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,22 @@
+package com.sun.wineshop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryJdbcRepository {
+
+    // A name inserted meanwhile by another import hits the unique key and is left as is.
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO categories (name) VALUES (?) ON DUPLICATE KEY UPDATE name = name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertIfAbsent(Collection<String> names) {
+        jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, names.stream().map(name -> new Object[]{name}).toList());
+    }
+}
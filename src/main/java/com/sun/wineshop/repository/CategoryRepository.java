@@ -5,10 +5,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Page<Category> findAllByDeletedAtIsNull(Pageable pageable);
 
     Optional<Category> findByName(String name);
+
+    List<Category> findAllByNameIn(Collection<String> names);
 }
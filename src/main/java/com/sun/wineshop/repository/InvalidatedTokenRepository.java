@@ -2,6 +2,21 @@ package com.sun.wineshop.repository;
 
 import com.sun.wineshop.model.entity.InvalidatedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
 
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+    List<InvalidatedToken> findAllByExpiryTimeAfter(Date time);
+
+    List<InvalidatedToken> findAllByRevokedAtAfterAndExpiryTimeAfter(Date revokedAfter, Date time);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM invalidated_token WHERE expiry_time < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Date cutoff, @Param("limit") int limit);
 }
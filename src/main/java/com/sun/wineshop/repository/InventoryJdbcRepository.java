@@ -0,0 +1,113 @@
+package com.sun.wineshop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+// Durable side of the hot stock ledger. An order line reserved in memory is stored with
+// stock_applied = false; its quantity is taken off products.stock_quantity later, by whoever
+// claims the line first: the flusher, or a cancellation that makes the decrement unnecessary.
+@Repository
+@RequiredArgsConstructor
+public class InventoryJdbcRepository {
+
+    private static final String FIND_UNAPPLIED =
+            "SELECT id, product_id, quantity FROM order_items WHERE stock_applied = false ORDER BY id LIMIT ?";
+    private static final String CLAIM_ITEM =
+            "UPDATE order_items SET stock_applied = true WHERE id = ? AND stock_applied = false";
+    private static final String APPLY_DECREMENT =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String LOCK_STOCK = "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE";
+    private static final String CLEAR_STOCK = "UPDATE products SET stock_quantity = 0 WHERE id = ?";
+    private static final String COMMITTED_AVAILABLE = """
+            SELECT p.id,
+                   CASE WHEN p.deleted_at IS NULL THEN p.stock_quantity ELSE 0 END
+                   - COALESCE((SELECT SUM(oi.quantity) FROM order_items oi
+                               WHERE oi.product_id = p.id AND oi.stock_applied = false), 0) AS available
+            FROM products p
+            WHERE p.id IN (%s)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record PendingItem(long id, long productId, int quantity) {}
+
+    // shortfalls: quantity per product that committed orders took beyond the row's stock.
+    public record AppliedStock(int lines, SortedMap<Long, Integer> decrements, SortedMap<Long, Integer> shortfalls) {}
+
+    // Claims by primary key rather than locking the scanned range, so checkouts inserting new
+    // unapplied lines are never blocked behind the flusher.
+    @Transactional
+    public List<Long> claim(List<Long> itemIds) {
+        int[] counts = jdbcTemplate.batchUpdate(CLAIM_ITEM, itemIds.stream()
+                .map(id -> new Object[]{id})
+                .toList());
+
+        List<Long> claimed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                claimed.add(itemIds.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    // Moves up to limit pending lines onto products.stock_quantity.
+    @Transactional
+    public AppliedStock applyPending(int limit) {
+        List<PendingItem> pending = jdbcTemplate.query(FIND_UNAPPLIED,
+                (rs, rowNum) -> new PendingItem(rs.getLong(1), rs.getLong(2), rs.getInt(3)), limit);
+        if (pending.isEmpty()) {
+            return new AppliedStock(0, new TreeMap<>(), new TreeMap<>());
+        }
+
+        Map<Long, PendingItem> byId = new HashMap<>();
+        pending.forEach(item -> byId.put(item.id(), item));
+        SortedMap<Long, Integer> decrements = new TreeMap<>();
+        for (Long id : claim(pending.stream().map(PendingItem::id).toList())) {
+            PendingItem item = byId.get(id);
+            decrements.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+
+        List<Long> productIds = new ArrayList<>(decrements.keySet());
+        int[] counts = jdbcTemplate.batchUpdate(APPLY_DECREMENT, productIds.stream()
+                .map(id -> new Object[]{decrements.get(id), id, decrements.get(id)})
+                .toList());
+
+        SortedMap<Long, Integer> shortfalls = new TreeMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Long productId = productIds.get(i);
+                shortfalls.put(productId, clearStock(productId, decrements.get(productId)));
+            }
+        }
+        return new AppliedStock(pending.size(), decrements, shortfalls);
+    }
+
+    // The row had less than the lines need, e.g. an admin lowered stock after they were reserved.
+    // The lines stay applied, since their orders are committed; the row stops at zero and the caller reports the rest.
+    private int clearStock(Long productId, int quantity) {
+        List<Integer> stock = jdbcTemplate.query(LOCK_STOCK, (rs, rowNum) -> rs.getInt(1), productId);
+        if (stock.isEmpty()) {
+            return quantity;
+        }
+        jdbcTemplate.update(CLEAR_STOCK, productId);
+        return quantity - Math.max(0, stock.get(0));
+    }
+
+    // Stock that committed orders have not consumed yet: the row value minus lines still pending.
+    public Map<Long, Integer> committedAvailable(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        String sql = String.format(COMMITTED_AVAILABLE, String.join(",", Collections.nCopies(productIds.size(), "?")));
+        Map<Long, Integer> available = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            available.put(rs.getLong(1), Math.max(0, rs.getInt(2)));
+        }, productIds.toArray());
+        return available;
+    }
+}
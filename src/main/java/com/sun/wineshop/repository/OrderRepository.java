@@ -2,16 +2,45 @@ package com.sun.wineshop.repository;
 
 import com.sun.wineshop.dto.response.MonthlyOrderStats;
 import com.sun.wineshop.model.entity.Order;
+import com.sun.wineshop.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findAllByUserId(Long userId, Pageable pageable);
 
+    List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable limit);
+
+    @Query("""
+        SELECT o FROM Order o
+        WHERE o.userId = :userId
+          AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+        ORDER BY o.createdAt DESC, o.id DESC
+    """)
+    List<Order> findOrderHistoryAfter(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit
+    );
+
+    long countByUserId(Long userId);
+
+    Optional<Order> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Compare-and-set on the status column, so only one of two racing transitions wins.
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to WHERE o.id = :id AND o.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
     @Query("""
         SELECT new com.sun.wineshop.dto.response.MonthlyOrderStats(
             YEAR(o.createdAt),
@@ -0,0 +1,220 @@
+package com.sun.wineshop.repository;
+
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+// Bulk writes that bypass Hibernate: IDENTITY ids stop Hibernate from batching inserts.
+@Repository
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO products (name, description, price, stock_quantity, alcohol_percentage,
+                                  volume, origin, image_url, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    // Matches live rows on uk_products_live_name_origin_volume, so a key created concurrently is updated in place.
+    private static final String UPSERT_PRODUCT = INSERT_PRODUCT + """
+            ON DUPLICATE KEY UPDATE description = VALUES(description), price = VALUES(price),
+                                    stock_quantity = VALUES(stock_quantity), alcohol_percentage = VALUES(alcohol_percentage),
+                                    image_url = VALUES(image_url), updated_at = VALUES(updated_at)
+            """;
+    // Locking read: sees rows committed by other imports after this transaction's snapshot.
+    private static final String FIND_LIVE_KEYS = """
+            SELECT id, name, origin, volume, created_at
+            FROM products
+            WHERE deleted_at IS NULL AND name IN (%s)
+            FOR UPDATE
+            """;
+    private static final String INSERT_PRODUCT_CATEGORY =
+            "INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)";
+    private static final String UPDATE_PRODUCT = """
+            UPDATE products
+            SET description = ?, price = ?, stock_quantity = ?, alcohol_percentage = ?, image_url = ?, updated_at = ?
+            WHERE id = ?
+            """;
+    private static final String DELETE_PRODUCT_CATEGORIES = "DELETE FROM product_categories WHERE product_id = ?";
+    private static final String RESERVE_STOCK = """
+            UPDATE products
+            SET stock_quantity = stock_quantity - ?
+            WHERE id = ? AND deleted_at IS NULL AND stock_quantity >= ?
+            """;
+    private static final String RELEASE_STOCK = "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Inserts the products and their category links in two JDBC batches and sets the generated ids.
+    @Transactional
+    public void insertAll(List<Product> products) {
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setString(2, product.getDescription());
+                        ps.setObject(3, product.getPrice());
+                        ps.setObject(4, product.getStockQuantity());
+                        ps.setObject(5, product.getAlcoholPercentage());
+                        ps.setObject(6, product.getVolume());
+                        ps.setString(7, product.getOrigin());
+                        ps.setString(8, product.getImageUrl());
+                        ps.setObject(9, now);
+                        ps.setObject(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> categoryLinks = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            product.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            if (product.getCategories() != null) {
+                for (Category category : product.getCategories()) {
+                    categoryLinks.add(new Object[]{product.getId(), category.getId()});
+                }
+            }
+        }
+
+        if (!categoryLinks.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_CATEGORY, categoryLinks);
+        }
+    }
+
+    // Updates the non-key columns in one batch and replaces the category links of the given products.
+    @Transactional
+    public void updateAll(List<Product> products, List<Product> categoriesChanged) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPDATE_PRODUCT, products.stream()
+                .map(product -> new Object[]{
+                        product.getDescription(),
+                        product.getPrice(),
+                        product.getStockQuantity(),
+                        product.getAlcoholPercentage(),
+                        product.getImageUrl(),
+                        now,
+                        product.getId()
+                })
+                .toList());
+        products.forEach(product -> product.setUpdatedAt(now));
+
+        replaceCategories(categoriesChanged);
+    }
+
+    // Inserts the products, or updates the live product already holding the same name, origin and volume.
+    // Generated keys are not reliable for rows that hit the duplicate branch; resolve ids with findLiveKeys.
+    @Transactional
+    public void upsertAll(List<Product> products) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT, products.stream()
+                .map(product -> new Object[]{
+                        product.getName(),
+                        product.getDescription(),
+                        product.getPrice(),
+                        product.getStockQuantity(),
+                        product.getAlcoholPercentage(),
+                        product.getVolume(),
+                        product.getOrigin(),
+                        product.getImageUrl(),
+                        now,
+                        now
+                })
+                .toList());
+        products.forEach(product -> product.setUpdatedAt(now));
+    }
+
+    // Id, key columns and creation time of the live products with the given names.
+    @Transactional
+    public List<Product> findLiveKeys(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(names.size(), "?"));
+        return jdbcTemplate.query(FIND_LIVE_KEYS.formatted(placeholders),
+                (rs, rowNum) -> Product.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .origin(rs.getString("origin"))
+                        .volume(rs.getObject("volume", Integer.class))
+                        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                        .build(),
+                names.toArray());
+    }
+
+    // Replaces the category links of the given products with their current categories.
+    @Transactional
+    public void replaceCategories(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_PRODUCT_CATEGORIES, products.stream()
+                .map(product -> new Object[]{product.getId()})
+                .toList());
+        List<Object[]> categoryLinks = new ArrayList<>();
+        for (Product product : products) {
+            if (product.getCategories() == null) {
+                continue;
+            }
+            for (Category category : product.getCategories()) {
+                categoryLinks.add(new Object[]{product.getId(), category.getId()});
+            }
+        }
+        if (!categoryLinks.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_CATEGORY, categoryLinks);
+        }
+    }
+
+    // Conditionally decrements stock for every product in one batch and returns the ids that had too little.
+    // Rows are touched in id order so concurrent checkouts lock them in the same order and cannot deadlock.
+    @Transactional
+    public List<Long> reserveStock(SortedMap<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_STOCK, ids.stream()
+                .map(id -> new Object[]{quantities.get(id), id, quantities.get(id)})
+                .toList());
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                insufficient.add(ids.get(i));
+            }
+        }
+        return insufficient;
+    }
+
+    @Transactional
+    public void releaseStock(SortedMap<Long, Integer> quantities) {
+        jdbcTemplate.batchUpdate(RELEASE_STOCK, quantities.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList());
+    }
+}
@@ -1,5 +1,8 @@
 package com.sun.wineshop.repository;
 
+import com.sun.wineshop.dto.response.CartProductRow;
+import com.sun.wineshop.dto.response.ProductCategoryNameRow;
+import com.sun.wineshop.dto.response.ProductExportRow;
 import com.sun.wineshop.model.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,32 +10,55 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSearchRepository {
 
-    @Query("""
-                SELECT DISTINCT p FROM Product p
-                JOIN p.categories c
-                WHERE p.deletedAt IS NULL
-                    AND (:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')))
-                    AND (:minPrice IS NULL OR p.price >= :minPrice)
-                    AND (:maxPrice IS NULL OR p.price <= :maxPrice)
-                    AND (:minAlcohol IS NULL OR p.alcoholPercentage >= :minAlcohol)
-                    AND (:maxAlcohol IS NULL OR p.alcoholPercentage <= :maxAlcohol)
-                    AND (:categoryIds IS NULL OR c.id IN :categoryIds)
-            """)
-    Page<Product> searchProducts(
-        @Param("keyword") String keyword,
-        @Param("minPrice") Double minPrice,
-        @Param("maxPrice") Double maxPrice,
-        @Param("minAlcohol") Double minAlcohol,
-        @Param("maxAlcohol") Double maxAlcohol,
-        @Param("categoryIds") List<Long> categoryIds,
-        Pageable pageable
-    );
-    Page<Product> findAllByDeletedAtIsNull(Pageable pageable);
+    // Ids only: the page is loaded with its categories in one query afterwards.
+    @Query(value = "SELECT p.id FROM Product p WHERE p.deletedAt IS NULL",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.deletedAt IS NULL")
+    Page<Long> findLiveIds(Pageable pageable);
+
+    List<Product> findByDeletedAtIsNullAndIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.categories WHERE p.id IN :ids")
+    List<Product> findAllWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.categories WHERE p.deletedAt IS NULL AND p.name IN :names")
+    List<Product> findLiveWithCategoriesByNameIn(@Param("names") Collection<String> names);
 
     Optional<Product> findByIdAndDeletedAtIsNull(Long id);
+
+    boolean existsByIdAndDeletedAtIsNull(Long id);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    List<Long> findLiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        SELECT new com.sun.wineshop.dto.response.ProductExportRow(
+            p.id, p.name, p.description, p.price, p.stockQuantity,
+            p.alcoholPercentage, p.volume, p.origin, p.imageUrl, p.createdAt
+        )
+        FROM Product p
+        WHERE p.id > :lastId
+        ORDER BY p.id
+    """)
+    List<ProductExportRow> findExportRowsAfter(@Param("lastId") Long lastId, Pageable limit);
+
+    @Query("""
+        SELECT new com.sun.wineshop.dto.response.ProductCategoryNameRow(p.id, c.name)
+        FROM Product p JOIN p.categories c
+        WHERE p.id IN :ids
+        ORDER BY p.id, c.name
+    """)
+    List<ProductCategoryNameRow> findCategoryNamesByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        SELECT new com.sun.wineshop.dto.response.CartProductRow(p.id, p.name, p.imageUrl, p.price, p.deletedAt)
+        FROM Product p
+        WHERE p.id IN :ids
+    """)
+    List<CartProductRow> findCartProductsByIdIn(@Param("ids") Collection<Long> ids);
 }
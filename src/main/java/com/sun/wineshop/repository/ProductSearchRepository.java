@@ -0,0 +1,19 @@
+package com.sun.wineshop.repository;
+
+import com.sun.wineshop.dto.request.ProductSearchRequest;
+import com.sun.wineshop.model.enums.ProductCursorSort;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductSearchRepository {
+    Page<Long> searchProductIds(ProductSearchRequest request, Collection<Long> restrictToIds, Pageable pageable);
+    List<SeekRow> seekProducts(ProductSearchRequest request, Collection<Long> restrictToIds,
+                               ProductCursorSort sort, Comparable<?> lastValue, Long lastId, int limit);
+    long countProducts(ProductSearchRequest request, Collection<Long> restrictToIds);
+
+    // A keyset row: the product id and its value of the sort attribute, which may be null.
+    record SeekRow(Long id, Object sortValue) {}
+}
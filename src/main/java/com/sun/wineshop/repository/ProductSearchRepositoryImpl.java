@@ -0,0 +1,152 @@
+package com.sun.wineshop.repository;
+
+import com.sun.wineshop.dto.request.ProductSearchRequest;
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.ProductCursorSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    private static final String ID = "id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> searchProductIds(ProductSearchRequest request, Collection<Long> restrictToIds, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(product.<Long>get(ID))
+                .where(buildPredicates(cb, query, product, request, restrictToIds))
+                .orderBy(buildOrders(cb, product, pageable.getSort()));
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> countProducts(request, restrictToIds));
+    }
+
+    // Keyset page: rows strictly after (lastValue, lastId) in sort order, so deep pages cost the same as the first.
+    // Orders by the plain columns so that idx_products_price_id and idx_products_created_at_id serve the scan:
+    // the database's own NULL ordering puts products without a price first ascending and last descending.
+    @Override
+    public List<SeekRow> seekProducts(ProductSearchRequest request, Collection<Long> restrictToIds,
+                                      ProductCursorSort sort, Comparable<?> lastValue, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        List<Predicate> predicates = new ArrayList<>(List.of(buildPredicates(cb, query, product, request, restrictToIds)));
+        if (lastId != null) {
+            predicates.add(after(cb, product, sort, lastValue, lastId));
+        }
+
+        Path<Object> sortPath = product.get(sort.getAttribute());
+        Path<Object> idPath = product.get(ID);
+        query.multiselect(idPath, sortPath)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(sort.isDescending()
+                        ? List.of(cb.desc(sortPath), cb.desc(idPath))
+                        : List.of(cb.asc(sortPath), cb.asc(idPath)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(row -> new SeekRow(row.get(0, Long.class), row.get(1)))
+                .toList();
+    }
+
+    @Override
+    public long countProducts(ProductSearchRequest request, Collection<Long> restrictToIds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product))
+                .where(buildPredicates(cb, query, product, request, restrictToIds));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate[] buildPredicates(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Product> product,
+                                        ProductSearchRequest request, Collection<Long> restrictToIds) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNull(product.get("deletedAt")));
+
+        if (restrictToIds != null) {
+            predicates.add(product.get(ID).in(restrictToIds));
+        }
+
+        if (request.name() != null && !request.name().isBlank()) {
+            String pattern = "%" + request.name().trim().toLowerCase(Locale.ROOT) + "%";
+            predicates.add(cb.like(cb.lower(product.get("name")), pattern));
+        }
+        if (request.minPrice() != null) {
+            predicates.add(cb.ge(product.get("price"), request.minPrice()));
+        }
+        if (request.maxPrice() != null) {
+            predicates.add(cb.le(product.get("price"), request.maxPrice()));
+        }
+        if (request.minAlcoholPercentage() != null) {
+            predicates.add(cb.ge(product.get("alcoholPercentage"), request.minAlcoholPercentage()));
+        }
+        if (request.maxAlcoholPercentage() != null) {
+            predicates.add(cb.le(product.get("alcoholPercentage"), request.maxAlcoholPercentage()));
+        }
+        if (request.categoryIds() != null && !request.categoryIds().isEmpty()) {
+            // EXISTS keeps one row per product, so no DISTINCT is needed over the join.
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Product> correlated = subquery.correlate(product);
+            Join<Product, Category> category = correlated.join("categories");
+            subquery.select(category.<Long>get(ID))
+                    .where(category.get(ID).in(request.categoryIds()));
+            predicates.add(cb.exists(subquery));
+        }
+
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate after(CriteriaBuilder cb, Root<Product> product, ProductCursorSort sort,
+                            Comparable lastValue, Long lastId) {
+        Path<Comparable> sortPath = product.get(sort.getAttribute());
+        Path<Long> idPath = product.get(ID);
+        Predicate idAfter = sort.isDescending() ? cb.lessThan(idPath, lastId) : cb.greaterThan(idPath, lastId);
+        if (lastValue == null) {
+            // Inside the block of rows without a sort value: leading when ascending, trailing when descending.
+            Predicate inNullBlock = cb.and(cb.isNull(sortPath), idAfter);
+            return sort.isDescending() ? inNullBlock : cb.or(inNullBlock, cb.isNotNull(sortPath));
+        }
+        Predicate valueAfter = cb.or(
+                sort.isDescending() ? cb.lessThan(sortPath, lastValue) : cb.greaterThan(sortPath, lastValue),
+                cb.and(cb.equal(sortPath, lastValue), idAfter)
+        );
+        return sort.isDescending() ? cb.or(valueAfter, cb.isNull(sortPath)) : valueAfter;
+    }
+
+    private List<Order> buildOrders(CriteriaBuilder cb, Root<Product> product, Sort sort) {
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(sort, product, cb));
+        // Tie-breaker so that pages are stable when the requested sort has duplicates.
+        orders.add(cb.asc(product.get(ID)));
+        return orders;
+    }
+}
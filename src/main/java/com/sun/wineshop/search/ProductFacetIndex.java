@@ -0,0 +1,188 @@
+package com.sun.wineshop.search;
+
+import com.sun.wineshop.dto.request.ProductSearchRequest;
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+@Component
+public class ProductFacetIndex extends ProductIndex {
+
+    private static final int[] PRICE_BOUNDS = {10, 20, 50, 100, 200};
+    private static final int[] ALCOHOL_BOUNDS = {5, 10, 12, 14, 16, 20};
+    private static final List<String> PRICE_RANGES = rangeLabels(PRICE_BOUNDS, "");
+    private static final List<String> ALCOHOL_RANGES = rangeLabels(ALCOHOL_BOUNDS, "%");
+
+    // Product ids are used directly as bit positions.
+    private final Map<Integer, FacetDocument> documents = new HashMap<>();
+    private final BitSet liveProducts = new BitSet();
+    private final Map<Long, BitSet> productsByCategory = new HashMap<>();
+
+    // Matching ids and facet counts for the filters, computed in one pass over the candidates.
+    // Candidates are the ranked keyword hits when given, otherwise every live product in id order.
+    public Optional<FacetSearchResult> search(ProductSearchRequest request, List<Long> rankedIds) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(read(() -> {
+            FacetCollector collector = new FacetCollector(request, selectedCategories(request.categoryIds()));
+            if (rankedIds != null) {
+                rankedIds.forEach(id -> collector.visit(Math.toIntExact(id)));
+            } else {
+                for (int ordinal = liveProducts.nextSetBit(0); ordinal >= 0; ordinal = liveProducts.nextSetBit(ordinal + 1)) {
+                    collector.visit(ordinal);
+                }
+            }
+            return collector.result();
+        }));
+    }
+
+    @Override
+    protected void addDocument(Product product) {
+        removeDocument(product.getId());
+
+        int ordinal = Math.toIntExact(product.getId());
+        List<Long> categoryIds = product.getCategories() == null
+                ? List.of()
+                : product.getCategories().stream().map(Category::getId).toList();
+        documents.put(ordinal, new FacetDocument(
+                product.getPrice(),
+                product.getAlcoholPercentage(),
+                product.getOrigin(),
+                categoryIds
+        ));
+        liveProducts.set(ordinal);
+        categoryIds.forEach(categoryId -> productsByCategory.computeIfAbsent(categoryId, key -> new BitSet()).set(ordinal));
+    }
+
+    @Override
+    protected void removeDocument(Long productId) {
+        int ordinal = Math.toIntExact(productId);
+        FacetDocument document = documents.remove(ordinal);
+        if (document == null) {
+            return;
+        }
+        liveProducts.clear(ordinal);
+        document.categoryIds().forEach(categoryId -> {
+            BitSet products = productsByCategory.get(categoryId);
+            if (products != null) {
+                products.clear(ordinal);
+            }
+        });
+    }
+
+    private BitSet selectedCategories(List<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        BitSet selected = new BitSet();
+        categoryIds.forEach(categoryId -> {
+            BitSet products = productsByCategory.get(categoryId);
+            if (products != null) {
+                selected.or(products);
+            }
+        });
+        return selected;
+    }
+
+    private static boolean inRange(Double value, Double min, Double max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null && (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    private static String rangeOf(Double value, int[] bounds, List<String> labels) {
+        if (value == null) {
+            return null;
+        }
+        for (int i = 0; i < bounds.length; i++) {
+            if (value < bounds[i]) {
+                return labels.get(i);
+            }
+        }
+        return labels.get(bounds.length);
+    }
+
+    private static List<String> rangeLabels(int[] bounds, String unit) {
+        List<String> labels = new ArrayList<>();
+        labels.add("<" + bounds[0] + unit);
+        for (int i = 1; i < bounds.length; i++) {
+            labels.add(bounds[i - 1] + "-" + bounds[i] + unit);
+        }
+        labels.add(bounds[bounds.length - 1] + unit + "+");
+        return List.copyOf(labels);
+    }
+
+    private static Map<String, Long> emptyCounts(List<String> labels) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        labels.forEach(label -> counts.put(label, 0L));
+        return counts;
+    }
+
+    public record FacetSearchResult(
+            List<Long> matchingIds,
+            Map<Long, Long> categoryCounts,
+            Map<String, Long> originCounts,
+            Map<String, Long> priceRangeCounts,
+            Map<String, Long> alcoholRangeCounts
+    ) {}
+
+    private record FacetDocument(Double price, Double alcoholPercentage, String origin, List<Long> categoryIds) {}
+
+    private class FacetCollector {
+
+        private final ProductSearchRequest request;
+        private final BitSet selectedCategories;
+        private final List<Long> matchingIds = new ArrayList<>();
+        private final Map<Long, Long> categoryCounts = new HashMap<>();
+        private final Map<String, Long> originCounts = new TreeMap<>();
+        private final Map<String, Long> priceRangeCounts = emptyCounts(PRICE_RANGES);
+        private final Map<String, Long> alcoholRangeCounts = emptyCounts(ALCOHOL_RANGES);
+
+        FacetCollector(ProductSearchRequest request, BitSet selectedCategories) {
+            this.request = request;
+            this.selectedCategories = selectedCategories;
+        }
+
+        void visit(int ordinal) {
+            FacetDocument document = documents.get(ordinal);
+            if (document == null) {
+                return;
+            }
+
+            boolean priceMatches = inRange(document.price(), request.minPrice(), request.maxPrice());
+            boolean alcoholMatches = inRange(document.alcoholPercentage(),
+                    request.minAlcoholPercentage(), request.maxAlcoholPercentage());
+            boolean categoryMatches = selectedCategories == null || selectedCategories.get(ordinal);
+
+            // Each facet counts products passing every filter but its own, so a selected value keeps its alternatives.
+            if (alcoholMatches && categoryMatches) {
+                increment(priceRangeCounts, rangeOf(document.price(), PRICE_BOUNDS, PRICE_RANGES));
+            }
+            if (priceMatches && categoryMatches) {
+                increment(alcoholRangeCounts, rangeOf(document.alcoholPercentage(), ALCOHOL_BOUNDS, ALCOHOL_RANGES));
+            }
+            if (priceMatches && alcoholMatches) {
+                document.categoryIds().forEach(categoryId -> increment(categoryCounts, categoryId));
+                if (categoryMatches) {
+                    increment(originCounts, document.origin());
+                    matchingIds.add((long) ordinal);
+                }
+            }
+        }
+
+        FacetSearchResult result() {
+            return new FacetSearchResult(matchingIds, categoryCounts, originCounts, priceRangeCounts, alcoholRangeCounts);
+        }
+
+        private <K> void increment(Map<K, Long> counts, K key) {
+            if (key != null) {
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sun.wineshop.search;
+
+import com.sun.wineshop.event.ProductChangedEvent;
+import com.sun.wineshop.model.entity.Product;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Base for in-memory product indexes: loaded once by ProductIndexLoader, then kept current from product change events.
+public abstract class ProductIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringLoad = new HashSet<>();
+    private volatile boolean loading = true;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Applied once the writing transaction commits, so a rolled-back change never reaches the index;
+    // events published outside a transaction are applied straight away.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        write(() -> {
+            for (Product product : event.changedProducts()) {
+                markChanged(product.getId());
+                if (product.getDeletedAt() == null) {
+                    addDocument(product);
+                } else {
+                    removeDocument(product.getId());
+                }
+            }
+            for (Long productId : event.removedProductIds()) {
+                markChanged(productId);
+                removeDocument(productId);
+            }
+        });
+    }
+
+    void load(List<Product> products) {
+        write(() -> {
+            for (Product product : products) {
+                // A change event seen while loading is newer than the row read by the loader.
+                if (!changedDuringLoad.contains(product.getId())) {
+                    addDocument(product);
+                }
+            }
+        });
+    }
+
+    void finishLoad(boolean succeeded) {
+        write(() -> {
+            loading = false;
+            ready = succeeded;
+            changedDuringLoad.clear();
+        });
+    }
+
+    protected <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected abstract void addDocument(Product product);
+
+    protected abstract void removeDocument(Long productId);
+
+    private void markChanged(Long productId) {
+        if (loading) {
+            changedDuringLoad.add(productId);
+        }
+    }
+
+    private void write(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
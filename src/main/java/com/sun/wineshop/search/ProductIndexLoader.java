@@ -0,0 +1,55 @@
+package com.sun.wineshop.search;
+
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIndexLoader {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    private final ProductRepository productRepository;
+    private final List<ProductIndex> productIndexes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofVirtual().name("product-index-loader").start(this::load);
+    }
+
+    private void load() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            long lastId = 0;
+            long loaded = 0;
+            List<Product> chunk;
+            do {
+                chunk = productRepository.findByDeletedAtIsNullAndIdGreaterThan(
+                        lastId, PageRequest.of(0, CHUNK_SIZE, Sort.by("id")));
+                if (!chunk.isEmpty()) {
+                    List<Product> products = productRepository.findAllWithCategoriesByIdIn(
+                            chunk.stream().map(Product::getId).toList());
+                    productIndexes.forEach(index -> index.load(products));
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                    loaded += chunk.size();
+                }
+            } while (chunk.size() == CHUNK_SIZE);
+
+            productIndexes.forEach(index -> index.finishLoad(true));
+            log.info("Product indexes loaded with {} products in {} ms", loaded, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            productIndexes.forEach(index -> index.finishLoad(false));
+            log.error("Failed to load product indexes, search stays on the database", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.sun.wineshop.search;
+
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.utils.NameKeyUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+@Component
+public class ProductSearchIndex extends ProductIndex {
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double ORIGIN_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double EXACT_TERM_BONUS = 0.5;
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    // term -> ids of the products containing it; sorted so that query terms can match by prefix
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+
+    // Ids of all live products matching every query term, best match first; empty when the index cannot answer.
+    // Hits are never truncated: page totals, facet counts and counts are computed from this list.
+    public Optional<List<Long>> search(String query) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+
+        List<String> queryTerms = tokenize(query).stream()
+                .filter(term -> term.length() >= MIN_TERM_LENGTH)
+                .distinct()
+                .toList();
+        if (queryTerms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(read(() -> rankMatches(queryTerms)));
+    }
+
+    @Override
+    protected void addDocument(Product product) {
+        removeDocument(product.getId());
+
+        IndexedProduct document = new IndexedProduct(
+                terms(product.getName()),
+                terms(product.getOrigin()),
+                terms(product.getDescription())
+        );
+        documents.put(product.getId(), document);
+        for (String term : document.terms()) {
+            postings.computeIfAbsent(term, key -> new HashSet<>()).add(product.getId());
+        }
+    }
+
+    @Override
+    protected void removeDocument(Long productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            postings.computeIfPresent(term, (key, productIds) -> {
+                productIds.remove(productId);
+                return productIds.isEmpty() ? null : productIds;
+            });
+        }
+    }
+
+    private List<Long> rankMatches(List<String> queryTerms) {
+        Set<Long> candidates = null;
+        for (String term : queryTerms) {
+            Set<Long> matches = new HashSet<>();
+            postings.subMap(term, true, term + Character.MAX_VALUE, true).values().forEach(matches::addAll);
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.retainAll(matches);
+            }
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long productId : candidates) {
+            scores.put(productId, score(documents.get(productId), queryTerms));
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private double score(IndexedProduct document, List<String> queryTerms) {
+        double score = 0;
+        for (String term : queryTerms) {
+            score += NAME_WEIGHT * termScore(document.name(), term)
+                    + ORIGIN_WEIGHT * termScore(document.origin(), term)
+                    + DESCRIPTION_WEIGHT * termScore(document.description(), term);
+        }
+        return score;
+    }
+
+    // Exact terms score above prefix matches; the field's terms are sorted, so a prefix match is the next one up.
+    private double termScore(NavigableSet<String> fieldTerms, String term) {
+        String next = fieldTerms.ceiling(term);
+        if (next == null || !next.startsWith(term)) {
+            return 0;
+        }
+        return next.equals(term) ? 1 + EXACT_TERM_BONUS : 1;
+    }
+
+    private static NavigableSet<String> terms(String text) {
+        return new TreeSet<>(tokenize(text));
+    }
+
+    // Terms compare without case and diacritics, like the unique keys.
+    private static List<String> tokenize(String text) {
+        return Arrays.stream(TERM_SEPARATOR.split(NameKeyUtil.fold(text)))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    // Terms per field, computed once at index time so that queries only look them up.
+    private record IndexedProduct(NavigableSet<String> name, NavigableSet<String> origin,
+                                  NavigableSet<String> description) {
+        Set<String> terms() {
+            Set<String> terms = new HashSet<>(name);
+            terms.addAll(origin);
+            terms.addAll(description);
+            return terms;
+        }
+    }
+}
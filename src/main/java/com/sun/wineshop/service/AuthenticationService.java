@@ -5,6 +5,7 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import com.sun.wineshop.configuration.DecodedJwtCache;
 import com.sun.wineshop.configuration.SecurityProperties;
 import com.sun.wineshop.dto.request.LoginRequest;
 import com.sun.wineshop.dto.request.LogoutRequest;
@@ -17,6 +18,7 @@ import com.sun.wineshop.exception.AppException;
 import com.sun.wineshop.exception.ErrorCode;
 import com.sun.wineshop.repository.InvalidatedTokenRepository;
 import com.sun.wineshop.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,6 +40,18 @@ public class AuthenticationService {
 
     private final UserRepository userRepository;
     private final PasswordService passwordService;
+    private final TokenRevocationService tokenRevocationService;
+    private final DecodedJwtCache decodedJwtCache;
+
+    private JWSVerifier verifier;
+    private JWSSigner signer;
+
+    @PostConstruct
+    void initJwtCrypto() throws JOSEException {
+        byte[] signerKey = securityProperties.getJwt().getSignerKey().getBytes();
+        verifier = new MACVerifier(signerKey);
+        signer = new MACSigner(signerKey);
+    }
 
     public VerifyTokenResponse verifyToken(VerifyTokenRequest request)
             throws JOSEException, ParseException {
@@ -70,13 +84,15 @@ public class AuthenticationService {
         InvalidatedToken invalidatedToken = InvalidatedToken.builder()
                 .id(jid)
                 .expiryTime(expiryTime)
+                .revokedAt(new Date())
                 .build();
 
         invalidatedTokenRepository.save(invalidatedToken);
+        tokenRevocationService.revoke(jid, expiryTime);
+        decodedJwtCache.invalidate(jid);
     }
 
     private SignedJWT checkValidToken(String token) throws JOSEException, ParseException {
-        JWSVerifier verifier = new MACVerifier(securityProperties.getJwt().getSignerKey().getBytes());
         SignedJWT signedJWT = SignedJWT.parse(token);
         Date expiration = signedJWT.getJWTClaimsSet().getExpirationTime();
         boolean verified = signedJWT.verify(verifier);
@@ -84,7 +100,7 @@ public class AuthenticationService {
         if (!(verified && expiration.after(new Date())))
             throw new AppException(ErrorCode.INVALID_TOKEN);
 
-        if (invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID()))
+        if (tokenRevocationService.isRevoked(signedJWT.getJWTClaimsSet().getJWTID()))
             throw new AppException(ErrorCode.INVALID_TOKEN);
 
         return signedJWT;
@@ -107,7 +123,7 @@ public class AuthenticationService {
         Payload payload = new Payload(jwtClaimsSet.toJSONObject());
         JWSObject jwsObject = new JWSObject(jwsHeader, payload);
         try {
-            jwsObject.sign(new MACSigner(securityProperties.getJwt().getSignerKey().getBytes()));
+            jwsObject.sign(signer);
             return jwsObject.serialize();
         } catch (JOSEException e) {
             log.error("Cannot create token", e);
@@ -1,6 +1,7 @@
 package com.sun.wineshop.service;
 
 import com.sun.wineshop.dto.request.AddToCartRequest;
+import com.sun.wineshop.dto.request.BulkCartUpdateRequest;
 import com.sun.wineshop.dto.request.RemoveCartItemRequest;
 import com.sun.wineshop.dto.request.UpdateCartItemRequest;
 import com.sun.wineshop.dto.response.CartResponse;
@@ -10,4 +11,5 @@ public interface CartService {
     CartResponse getCartByUserId(Long userId);
     void updateCartItemQuantity(Long userId, UpdateCartItemRequest request);
     void removeItemFromCart(Long userId, RemoveCartItemRequest request);
+    CartResponse applyOperations(Long userId, BulkCartUpdateRequest request);
 }
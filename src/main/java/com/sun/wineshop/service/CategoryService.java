@@ -6,12 +6,15 @@ import com.sun.wineshop.model.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CategoryService {
     CategoryResponse createCategory(CategoryRequest request);
     Page<CategoryResponse> getAllCategories(Pageable pageable);
     void updateCategory(Long id, CategoryRequest request);
     void deleteCategoryById(Long id);
-    List<Category> findOrCreateByNames(List<String> names);
+    List<Category> findAllByIds(List<Long> ids);
+    Map<String, Category> findOrCreateByNames(Collection<String> names);
 }
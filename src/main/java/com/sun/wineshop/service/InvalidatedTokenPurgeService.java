@@ -0,0 +1,70 @@
+package com.sun.wineshop.service;
+
+import com.sun.wineshop.configuration.SecurityProperties;
+import com.sun.wineshop.repository.InvalidatedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class InvalidatedTokenPurgeService {
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final SecurityProperties securityProperties;
+    private final Counter purgedCounter;
+    private final AtomicLong tableSize = new AtomicLong();
+
+    public InvalidatedTokenPurgeService(InvalidatedTokenRepository invalidatedTokenRepository,
+                                        SecurityProperties securityProperties,
+                                        MeterRegistry meterRegistry) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.securityProperties = securityProperties;
+        this.purgedCounter = Counter.builder("invalidated_tokens.purged")
+                .description("Expired invalidated tokens removed from the database")
+                .register(meterRegistry);
+        Gauge.builder("invalidated_tokens.rows", tableSize, AtomicLong::get)
+                .description("Rows in the invalidated_token table after the last purge")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${security.revocation.purge.initial-delay-ms:60000}",
+            fixedDelayString = "${security.revocation.purge.interval-ms:600000}")
+    public void purgeExpiredTokens() {
+        SecurityProperties.Purge purge = securityProperties.getRevocation().getPurge();
+        // Only rows that expired before the grace period are touched, so recently written rows stay out of the purge.
+        Date cutoff = Date.from(Instant.now().minus(purge.getGracePeriod()));
+
+        long purged = 0;
+        for (int batch = 0; batch < purge.getMaxBatchesPerRun(); batch++) {
+            int deleted = invalidatedTokenRepository.deleteExpiredBatch(cutoff, purge.getBatchSize());
+            purged += deleted;
+            if (deleted < purge.getBatchSize() || !pause(purge)) {
+                break;
+            }
+        }
+
+        purgedCounter.increment(purged);
+        tableSize.set(invalidatedTokenRepository.count());
+        if (purged > 0) {
+            log.info("Purged {} expired invalidated tokens, {} rows left", purged, tableSize.get());
+        }
+    }
+
+    private boolean pause(SecurityProperties.Purge purge) {
+        try {
+            Thread.sleep(purge.getBatchPause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.sun.wineshop.service;
+
+import com.sun.wineshop.model.entity.OrderItem;
+
+import java.util.List;
+
+public interface InventoryService {
+    void reserve(List<OrderItem> items);
+    void release(List<OrderItem> items);
+}
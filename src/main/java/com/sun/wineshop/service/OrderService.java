@@ -1,14 +1,16 @@
 package com.sun.wineshop.service;
 
 import com.sun.wineshop.dto.request.PlaceOrderRequest;
+import com.sun.wineshop.dto.response.CursorPageResponse;
 import com.sun.wineshop.dto.response.OrderDetailResponse;
 import com.sun.wineshop.dto.response.OrderResponse;
 import com.sun.wineshop.dto.response.OrderSummaryResponse;
 import org.springframework.data.domain.Page;
 
 public interface OrderService {
-    OrderResponse placeOrder(Long userId, PlaceOrderRequest request);
+    OrderResponse placeOrder(Long userId, PlaceOrderRequest request, String idempotencyKey);
     OrderDetailResponse show(Long orderId, Long userId);
     Page<OrderSummaryResponse> getOrderHistory(Long userId, int pageNumber, int pageSize);
+    CursorPageResponse<OrderSummaryResponse> getOrderHistoryByCursor(Long userId, String cursor, int pageSize, boolean includeTotal);
     void cancelOrder(Long orderId, Long userId);
 }
@@ -0,0 +1,12 @@
+package com.sun.wineshop.service;
+
+import com.sun.wineshop.importer.ImportJob;
+import com.sun.wineshop.model.enums.BulkFormat;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+public interface ProductBulkService {
+    void exportProducts(BulkFormat format, OutputStream outputStream);
+    void importProducts(Path file, ImportJob job);
+}
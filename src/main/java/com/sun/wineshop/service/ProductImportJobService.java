@@ -0,0 +1,13 @@
+package com.sun.wineshop.service;
+
+import com.sun.wineshop.dto.response.ImportJobResponse;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportMode;
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ProductImportJobService {
+    ImportJobResponse submit(MultipartFile file, BulkFormat format, ImportMode mode);
+    ImportJobResponse getJob(String jobId);
+    Resource getErrorReport(String jobId);
+}
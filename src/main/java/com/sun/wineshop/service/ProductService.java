@@ -3,20 +3,30 @@ package com.sun.wineshop.service;
 import com.sun.wineshop.dto.request.CreateProductRequest;
 import com.sun.wineshop.dto.request.ProductSearchRequest;
 import com.sun.wineshop.dto.request.UpdateProductRequest;
+import com.sun.wineshop.dto.response.BulkUpsertResult;
+import com.sun.wineshop.dto.response.CursorPageResponse;
+import com.sun.wineshop.dto.response.FacetedProductSearchResponse;
+import com.sun.wineshop.dto.response.ProductExportRow;
 import com.sun.wineshop.dto.response.ProductResponse;
 import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.ProductCursorSort;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
     Page<ProductResponse> getAllProducts(Pageable pageable);
     Page<ProductResponse> searchProducts(ProductSearchRequest request, Pageable pageable);
+    FacetedProductSearchResponse searchProductsWithFacets(ProductSearchRequest request, Pageable pageable);
+    CursorPageResponse<ProductResponse> searchProductsByCursor(ProductSearchRequest request, ProductCursorSort sort,
+                                                               String cursor, int pageSize, boolean includeTotal);
     ProductResponse getProductById(Long id);
     ProductResponse createProduct(CreateProductRequest request);
     ProductResponse updateProduct(Long id, UpdateProductRequest request);
     void deleteProduct(Long id, boolean permanent);
-    List<Product> getAllProductsForExport();
-    void saveAll(List<Product> products);
+    void forEachExportChunk(int chunkSize, Consumer<List<ProductExportRow>> consumer);
+    void bulkInsert(List<Product> products);
+    BulkUpsertResult bulkUpsert(List<Product> products);
 }
@@ -0,0 +1,57 @@
+package com.sun.wineshop.service;
+
+import com.sun.wineshop.configuration.SecurityProperties;
+import com.sun.wineshop.repository.InvalidatedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked tokens that have not expired yet, so that each request is checked without a query.
+// Revocations on other nodes arrive with the next sync: security.revocation.sync-interval-ms is how long
+// such a token is still accepted here, at most. A sync only reads the rows revoked since the previous one.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final SecurityProperties securityProperties;
+
+    // jti -> expiry time (epoch millis)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // Start of the last sync; rows revoked from then on are not known yet.
+    private volatile Date syncedUntil;
+
+    @PostConstruct
+    public void loadRevokedTokens() {
+        Date now = new Date();
+        invalidatedTokenRepository.findAllByExpiryTimeAfter(now)
+                .forEach(token -> revokedTokens.put(token.getId(), token.getExpiryTime().getTime()));
+        syncedUntil = now;
+        log.info("Loaded {} revoked tokens", revokedTokens.size());
+    }
+
+    public boolean isRevoked(String jwtId) {
+        return jwtId != null && revokedTokens.containsKey(jwtId);
+    }
+
+    public void revoke(String jwtId, Date expiryTime) {
+        revokedTokens.put(jwtId, expiryTime.getTime());
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval-ms:5000}")
+    public void syncFromDatabase() {
+        Date now = new Date();
+        Date revokedAfter = new Date(syncedUntil.getTime() - securityProperties.getRevocation().getSyncOverlap().toMillis());
+        invalidatedTokenRepository.findAllByRevokedAtAfterAndExpiryTimeAfter(revokedAfter, now)
+                .forEach(token -> revokedTokens.put(token.getId(), token.getExpiryTime().getTime()));
+        syncedUntil = now;
+        revokedTokens.values().removeIf(expiryTime -> expiryTime <= now.getTime());
+    }
+}
@@ -1,140 +1,218 @@
 package com.sun.wineshop.service.impl;
 
+import com.sun.wineshop.cart.CartSnapshot;
+import com.sun.wineshop.cart.CartState;
+import com.sun.wineshop.cart.CartStore;
 import com.sun.wineshop.dto.request.AddToCartRequest;
+import com.sun.wineshop.dto.request.BulkCartUpdateRequest;
+import com.sun.wineshop.dto.request.CartOperationRequest;
 import com.sun.wineshop.dto.request.RemoveCartItemRequest;
 import com.sun.wineshop.dto.request.UpdateCartItemRequest;
 import com.sun.wineshop.dto.response.CartItemResponse;
+import com.sun.wineshop.dto.response.CartLineRow;
+import com.sun.wineshop.dto.response.CartProductRow;
 import com.sun.wineshop.dto.response.CartResponse;
 import com.sun.wineshop.exception.AppException;
 import com.sun.wineshop.exception.ErrorCode;
-import com.sun.wineshop.model.entity.Cart;
-import com.sun.wineshop.model.entity.CartItem;
-import com.sun.wineshop.model.entity.Product;
-import com.sun.wineshop.repository.CartRepository;
+import com.sun.wineshop.model.enums.CartOperationType;
+import com.sun.wineshop.repository.CartItemRepository;
+import com.sun.wineshop.repository.CartJdbcRepository;
 import com.sun.wineshop.repository.ProductRepository;
-import com.sun.wineshop.repository.UserRepository;
 import com.sun.wineshop.service.CartService;
+import com.sun.wineshop.utils.AppConstants;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
 
-    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartJdbcRepository cartJdbcRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
 
+    // Without the write-behind store every mutation is a single statement on cart_item.
     @Override
     public void addToCart(Long userId, AddToCartRequest request) {
-        var user = userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
-
-        var product = productRepository.findByIdAndDeletedAtIsNull(request.productId())
-                .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
-
-        var cart = cartRepository.findByUserId(user.getId())
-                .orElseGet(() -> {
-                    var newCart = new Cart();
-                    newCart.setUserId(user.getId());
-                    return cartRepository.save(newCart);
-                });
-
-        var existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(product.getId()))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + request.quantity());
-        } else {
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(request.quantity())
-                    .build();
-            cart.getItems().add(newItem);
+        requireLiveProduct(request.productId());
+        if (cartStore.isEnabled()) {
+            cartStore.update(userId, cart -> cart.add(request.productId(), request.quantity()));
+            return;
         }
 
-        cartRepository.save(cart);
+        if (cartItemRepository.addQuantity(userId, request.productId(), request.quantity()) == 0) {
+            cartJdbcRepository.insertCartIfAbsent(userId);
+            cartItemRepository.addQuantity(userId, request.productId(), request.quantity());
+        }
     }
 
+    // Reads never create a cart row; a user without one gets an empty cart.
     @Override
     public CartResponse getCartByUserId(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXIST));
-
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUserId(userId);
-                    return cartRepository.save(newCart);
-                });
-
-        List<CartItemResponse> itemResponses = cart.getItems().stream()
-                .map(item -> new CartItemResponse(
-                                item.getProduct().getId(),
-                                item.getProduct().getName(),
-                                item.getProduct().getImageUrl(),
-                                item.getProduct().getPrice(),
-                                item.getQuantity(),
-                                item.getProduct().getDeletedAt() == null
-                        )
-                ).toList();
-
-        double total = itemResponses.stream()
-                .mapToDouble(i -> i.price() * i.quantity())
-                .sum();
-
-        return new CartResponse(cart.getId(), userId, itemResponses, total);
+        if (cartStore.isEnabled()) {
+            return toCartResponse(userId, cartStore.snapshot(userId));
+        }
+
+        Long cartId = null;
+        List<CartItemResponse> itemResponses = new ArrayList<>();
+        double total = 0;
+        for (CartLineRow row : cartItemRepository.findCartLines(userId)) {
+            cartId = row.cartId();
+            if (row.productId() == null) {
+                continue;
+            }
+            itemResponses.add(new CartItemResponse(
+                    row.productId(),
+                    row.productName(),
+                    row.imageUrl(),
+                    row.price(),
+                    row.quantity(),
+                    row.deletedAt() == null
+            ));
+            total += row.price() * row.quantity();
+        }
+
+        return new CartResponse(cartId, userId, itemResponses, total);
     }
 
     @Override
     public void updateCartItemQuantity(Long userId, UpdateCartItemRequest request) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.CART_NOT_FOUND));
-
-        CartItem item = cart.getItems().stream()
-                .filter(i -> i.getProduct().getId().equals(request.productId()))
-                .findFirst()
-                .orElse(null);
-
-        if (item == null) {
-            if (request.quantity() > 0) {
-                Product product = productRepository.findById(request.productId())
-                        .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
-
-                CartItem newItem = CartItem.builder()
-                        .cart(cart)
-                        .product(product)
-                        .quantity(request.quantity())
-                        .build();
-                cart.getItems().add(newItem);
-            }
-        } else {
-            if (request.quantity() > 0) {
-                item.setQuantity(request.quantity());
-            } else {
-                cart.getItems().remove(item);
-            }
+        if (cartStore.isEnabled()) {
+            cartStore.update(userId, cart -> {
+                if (cart.contains(request.productId())) {
+                    cart.set(request.productId(), request.quantity());
+                } else if (request.quantity() > 0) {
+                    requireLiveProduct(request.productId());
+                    cart.set(request.productId(), request.quantity());
+                }
+            });
+            return;
         }
 
-        cartRepository.save(cart);
+        if (request.quantity() <= 0) {
+            cartItemRepository.deleteLine(userId, request.productId());
+            return;
+        }
+        if (cartItemRepository.updateQuantity(userId, request.productId(), request.quantity()) == 0) {
+            requireLiveProduct(request.productId());
+            if (cartItemRepository.setQuantity(userId, request.productId(), request.quantity()) == 0) {
+                throw new AppException(ErrorCode.CART_NOT_FOUND);
+            }
+        }
     }
 
     @Override
     public void removeItemFromCart(Long userId, RemoveCartItemRequest request) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new AppException(ErrorCode.CART_NOT_FOUND));
+        if (cartStore.isEnabled()) {
+            cartStore.update(userId, cart -> {
+                if (!cart.remove(request.productId())) {
+                    throw new AppException(ErrorCode.PRODUCT_NOT_FOUND_IN_CART);
+                }
+            });
+            return;
+        }
 
-        boolean removed = cart.getItems().removeIf(i -> i.getProduct().getId().equals(request.productId()));
+        if (cartItemRepository.deleteLine(userId, request.productId()) == 0) {
+            throw new AppException(ErrorCode.PRODUCT_NOT_FOUND_IN_CART);
+        }
+    }
 
-        if (removed) {
-            cartRepository.save(cart);
+    // All operations go to one copy of the cart and the changed lines are written together: by the next
+    // store flush, or in one locked transaction of batched statements. Removing a line that is not in the
+    // cart is a no-op, so a client can replay a sync.
+    @Override
+    public CartResponse applyOperations(Long userId, BulkCartUpdateRequest request) {
+        List<CartOperationRequest> operations = validOperations(request);
+        if (cartStore.isEnabled()) {
+            cartStore.update(userId, cart -> apply(cart, operations));
         } else {
-            throw new AppException(ErrorCode.PRODUCT_NOT_FOUND_IN_CART);
+            transactionTemplate.executeWithoutResult(status -> {
+                CartJdbcRepository.StoredCart stored = cartJdbcRepository.findByUserIdForUpdate(userId);
+                CartState cart = new CartState(userId, stored.cartId(), stored.lines());
+                apply(cart, operations);
+                cartJdbcRepository.writeAll(List.of(cart.drain()));
+            });
         }
+        return getCartByUserId(userId);
+    }
+
+    private List<CartOperationRequest> validOperations(BulkCartUpdateRequest request) {
+        List<CartOperationRequest> operations = request == null ? null : request.operations();
+        boolean valid = operations != null
+                && !operations.isEmpty()
+                && operations.size() <= AppConstants.MAX_CART_OPERATIONS
+                && operations.stream().allMatch(op -> op != null && op.type() != null && op.productId() != null
+                        && (op.type() != CartOperationType.ADD || op.quantity() > 0));
+        if (!valid) {
+            throw new AppException(ErrorCode.CART_OPERATIONS_INVALID, AppConstants.MAX_CART_OPERATIONS);
+        }
+        return operations;
+    }
+
+    // Products new to the cart are checked in one query before anything changes, so a rejected
+    // request leaves the cart as it was.
+    private void apply(CartState cart, List<CartOperationRequest> operations) {
+        Set<Long> added = new HashSet<>();
+        for (CartOperationRequest op : operations) {
+            boolean adds = op.type() == CartOperationType.ADD || (op.type() == CartOperationType.SET && op.quantity() > 0);
+            if (adds && !cart.contains(op.productId())) {
+                added.add(op.productId());
+            }
+        }
+        if (!added.isEmpty() && productRepository.findLiveIdsByIdIn(added).size() < added.size()) {
+            throw new AppException(ErrorCode.PRODUCT_NOT_FOUND);
+        }
+
+        for (CartOperationRequest op : operations) {
+            switch (op.type()) {
+                case ADD -> cart.add(op.productId(), op.quantity());
+                case SET -> cart.set(op.productId(), op.quantity());
+                case REMOVE -> cart.remove(op.productId());
+            }
+        }
+    }
+
+    private void requireLiveProduct(Long productId) {
+        if (productId == null || !productRepository.existsByIdAndDeletedAtIsNull(productId)) {
+            throw new AppException(ErrorCode.PRODUCT_NOT_FOUND);
+        }
+    }
+
+    // Products of all lines in one projection query; a line whose product was removed outright is left out.
+    private CartResponse toCartResponse(Long userId, CartSnapshot cart) {
+        Map<Long, CartProductRow> products = cart.lines().isEmpty() ? Map.of()
+                : productRepository.findCartProductsByIdIn(cart.lines().keySet()).stream()
+                .collect(Collectors.toMap(CartProductRow::id, Function.identity()));
+
+        List<CartItemResponse> itemResponses = new ArrayList<>();
+        double total = 0;
+        for (Map.Entry<Long, Integer> line : cart.lines().entrySet()) {
+            CartProductRow product = products.get(line.getKey());
+            if (product == null) {
+                continue;
+            }
+            itemResponses.add(new CartItemResponse(
+                    product.id(),
+                    product.name(),
+                    product.imageUrl(),
+                    product.price(),
+                    line.getValue(),
+                    product.deletedAt() == null
+            ));
+            total += product.price() * line.getValue();
+        }
+
+        return new CartResponse(cart.cartId(), userId, itemResponses, total);
     }
 }
@@ -6,16 +6,20 @@ import com.sun.wineshop.exception.AppException;
 import com.sun.wineshop.exception.ErrorCode;
 import com.sun.wineshop.mapper.ToDtoMappers;
 import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.repository.CategoryJdbcRepository;
 import com.sun.wineshop.repository.CategoryRepository;
 import com.sun.wineshop.service.CategoryService;
+import com.sun.wineshop.utils.AppConstants;
+import com.sun.wineshop.utils.NameKeyUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.sun.wineshop.mapper.ToDtoMappers.toCategoryResponse;
 
@@ -23,10 +27,17 @@ import static com.sun.wineshop.mapper.ToDtoMappers.toCategoryResponse;
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
+    // Lookup, insert of the missing names, lookup again; a last lookup covers inserts racing with another import.
+    private static final int FIND_OR_CREATE_ATTEMPTS = 3;
+
     private final CategoryRepository categoryRepository;
+    private final CategoryJdbcRepository categoryJdbcRepository;
 
     @Override
     public CategoryResponse createCategory(CategoryRequest request) {
+        if (categoryRepository.findByName(request.name()).isPresent()) {
+            throw new AppException(ErrorCode.CATEGORY_EXISTED);
+        }
         Category category = Category.builder()
                 .name(request.name())
                 .description(request.description())
@@ -43,9 +54,15 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @CacheEvict(value = {AppConstants.PRODUCT_CACHE, AppConstants.PRODUCT_PAGE_CACHE}, allEntries = true)
     public void updateCategory(Long id, CategoryRequest request) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.CATEGORY_NOT_FOUND));
+        categoryRepository.findByName(request.name())
+                .filter(existing -> !existing.getId().equals(id))
+                .ifPresent(existing -> {
+                    throw new AppException(ErrorCode.CATEGORY_EXISTED);
+                });
         category.setName(request.name());
         category.setDescription(request.description());
         categoryRepository.save(category);
@@ -64,17 +81,64 @@ public class CategoryServiceImpl implements CategoryService {
         categoryRepository.save(category);
     }
 
-    public List<Category> findOrCreateByNames(List<String> names) {
-        List<Category> results = new ArrayList<>();
+    @Override
+    public List<Category> findAllByIds(List<Long> ids) {
+        List<Category> categories = categoryRepository.findAllById(ids);
+        if (categories.size() != new HashSet<>(ids).size()) {
+            Set<Long> foundIds = categories.stream().map(Category::getId).collect(Collectors.toSet());
+            String missingIds = ids.stream()
+                    .filter(id -> !foundIds.contains(id))
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", "));
+
+            throw new AppException(ErrorCode.CATEGORY_SOME_NOT_FOUND, missingIds);
+        }
+        return categories;
+    }
+
+    // Resolves names with one IN query and one batched insert for the missing ones.
+    // The result is keyed by the names as given; lookups follow the case-insensitive collation of the column.
+    @Override
+    public Map<String, Category> findOrCreateByNames(Collection<String> names) {
+        Set<String> requested = names.stream()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requested.isEmpty()) {
+            return Map.of();
+        }
 
-        for (String name : names) {
-            Category category = categoryRepository.findByName(name)
-                    .orElseGet(() -> categoryRepository.save(
-                            Category.builder().name(name).build()
-                    ));
-            results.add(category);
+        Map<String, Category> byKey = new HashMap<>();
+        Collection<String> missing = requested;
+        for (int attempt = 0; attempt < FIND_OR_CREATE_ATTEMPTS && !missing.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                categoryJdbcRepository.insertIfAbsent(distinctByKey(missing));
+            }
+            categoryRepository.findAllByNameIn(missing)
+                    .forEach(category -> byKey.put(nameKey(category.getName()), category));
+            missing = requested.stream().filter(name -> !byKey.containsKey(nameKey(name))).toList();
         }
+        if (!missing.isEmpty()) {
+            throw new AppException(ErrorCode.CATEGORY_SOME_NOT_FOUND, String.join(", ", missing));
+        }
+
+        Map<String, Category> result = new HashMap<>();
+        names.forEach(name -> {
+            Category category = byKey.get(nameKey(name.trim()));
+            if (category != null) {
+                result.put(name, category);
+            }
+        });
+        return result;
+    }
+
+    private Collection<String> distinctByKey(Collection<String> names) {
+        Map<String, String> byKey = new LinkedHashMap<>();
+        names.forEach(name -> byKey.putIfAbsent(nameKey(name), name));
+        return byKey.values();
+    }
 
-        return results;
+    private static String nameKey(String name) {
+        return NameKeyUtil.fold(name);
     }
 }
@@ -0,0 +1,115 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.inventory.HotStockLedger;
+import com.sun.wineshop.model.entity.OrderItem;
+import com.sun.wineshop.repository.InventoryJdbcRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
+import com.sun.wineshop.service.InventoryService;
+import com.sun.wineshop.utils.AppConstants;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements InventoryService {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final HotStockLedger hotStockLedger;
+    private final CacheManager cacheManager;
+
+    // Must run inside the caller's transaction: a shortfall on any line throws and rolls back the whole batch.
+    // Hot products are reserved in memory and their lines left for the flusher to apply.
+    @Transactional(Transactional.TxType.MANDATORY)
+    @Override
+    public void reserve(List<OrderItem> items) {
+        SortedMap<Long, Integer> hot = new TreeMap<>();
+        SortedMap<Long, Integer> cold = new TreeMap<>();
+        quantitiesByProduct(items).forEach((productId, quantity) ->
+                (hotStockLedger.isTracked(productId) ? hot : cold).put(productId, quantity));
+
+        if (!cold.isEmpty()) {
+            List<Long> insufficient = productJdbcRepository.reserveStock(cold);
+            if (!insufficient.isEmpty()) {
+                throw new AppException(ErrorCode.PRODUCT_OUT_OF_STOCK, insufficient.get(0));
+            }
+            evictAfterCommit(cold.keySet());
+        }
+
+        if (!hot.isEmpty()) {
+            List<Long> insufficient = hotStockLedger.reserve(hot);
+            if (!insufficient.isEmpty()) {
+                throw new AppException(ErrorCode.PRODUCT_OUT_OF_STOCK, insufficient.get(0));
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    hotStockLedger.complete(hot, status == STATUS_COMMITTED);
+                }
+            });
+        }
+
+        items.forEach(item -> item.setStockApplied(!hot.containsKey(item.getProduct().getId())));
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    @Override
+    public void release(List<OrderItem> items) {
+        List<OrderItem> restocked = new ArrayList<>();
+        List<OrderItem> pending = new ArrayList<>();
+        items.forEach(item -> (item.isStockApplied() ? restocked : pending).add(item));
+
+        if (!pending.isEmpty()) {
+            // A pending line claimed here was never taken off the row; one the flusher got to first was.
+            Set<Long> claimed = new HashSet<>(inventoryJdbcRepository.claim(
+                    pending.stream().map(OrderItem::getId).toList()));
+            pending.stream().filter(item -> !claimed.contains(item.getId())).forEach(restocked::add);
+        }
+
+        SortedMap<Long, Integer> quantities = new TreeMap<>(quantitiesByProduct(restocked));
+        if (!quantities.isEmpty()) {
+            productJdbcRepository.releaseStock(quantities);
+            evictAfterCommit(quantities.keySet());
+        }
+
+        Map<Long, Integer> all = quantitiesByProduct(items);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hotStockLedger.release(all);
+            }
+        });
+    }
+
+    private Map<Long, Integer> quantitiesByProduct(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Cached product responses carry the stock level. Page caches are left to expire on their own
+    // rather than being flushed on every checkout.
+    private void evictAfterCommit(Collection<Long> productIds) {
+        Cache cache = cacheManager.getCache(AppConstants.PRODUCT_CACHE);
+        if (cache == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productIds.forEach(cache::evict);
+            }
+        });
+    }
+}
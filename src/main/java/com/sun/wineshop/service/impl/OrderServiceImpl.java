@@ -1,6 +1,9 @@
 package com.sun.wineshop.service.impl;
 
+import com.sun.wineshop.cart.CartStore;
+import com.sun.wineshop.configuration.IdempotencyRegistry;
 import com.sun.wineshop.dto.request.PlaceOrderRequest;
+import com.sun.wineshop.dto.response.CursorPageResponse;
 import com.sun.wineshop.dto.response.OrderDetailResponse;
 import com.sun.wineshop.dto.response.OrderItemResponse;
 import com.sun.wineshop.dto.response.OrderResponse;
@@ -10,39 +13,95 @@ import com.sun.wineshop.exception.ErrorCode;
 import com.sun.wineshop.mapper.ToDtoMappers;
 import com.sun.wineshop.model.entity.*;
 import com.sun.wineshop.model.enums.OrderStatus;
+import com.sun.wineshop.repository.CartItemRepository;
 import com.sun.wineshop.repository.CartRepository;
 import com.sun.wineshop.repository.OrderRepository;
-import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.service.InventoryService;
 import com.sun.wineshop.service.OrderService;
+import com.sun.wineshop.utils.AppConstants;
+import com.sun.wineshop.utils.CursorUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
+    private final CartItemRepository cartItemRepository;
     private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final IdempotencyRegistry idempotencyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final CartStore cartStore;
 
-    @Transactional
+    // Transactions are opened here rather than by annotation so that duplicates are resolved outside them.
     @Override
-    public OrderResponse placeOrder(Long userId, PlaceOrderRequest request) {
-        Cart cart = cartRepository.findByUserId(userId)
+    public OrderResponse placeOrder(Long userId, PlaceOrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return checkout(userId, request, null);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > AppConstants.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new AppException(ErrorCode.IDEMPOTENCY_KEY_INVALID);
+        }
+        return idempotencyRegistry.execute(userId + ":" + idempotencyKey,
+                () -> placeOrderOnce(userId, request, idempotencyKey));
+    }
+
+    // The registry only covers this process and its retention window; the unique key on
+    // (user_id, idempotency_key) catches retries that reach another instance or arrive after a restart.
+    private OrderResponse placeOrderOnce(Long userId, PlaceOrderRequest request, String idempotencyKey) {
+        Optional<OrderResponse> existing = findPlacedOrder(userId, idempotencyKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            return checkout(userId, request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            return findPlacedOrder(userId, idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<OrderResponse> findPlacedOrder(Long userId, String idempotencyKey) {
+        return transactionTemplate.execute(status -> orderRepository
+                .findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .map(this::toOrderResponse));
+    }
+
+    // Pending cart changes are written first and the cart stays locked until the order commits.
+    private OrderResponse checkout(Long userId, PlaceOrderRequest request, String idempotencyKey) {
+        return cartStore.checkout(userId,
+                () -> transactionTemplate.execute(status -> createOrder(userId, request, idempotencyKey)));
+    }
+
+    private OrderResponse createOrder(Long userId, PlaceOrderRequest request, String idempotencyKey) {
+        Cart cart = cartRepository.findWithItemsAndProductsByUserId(userId)
                 .orElseThrow(() -> new AppException(ErrorCode.CART_NOT_FOUND));
 
         if (cart.getItems().isEmpty()) {
             throw new AppException(ErrorCode.CART_EMPTY);
         }
 
+        // Products came with the cart, so every line is checked in memory.
+        for (CartItem cartItem : cart.getItems()) {
+            Product product = cartItem.getProduct();
+            if (product == null || product.getDeletedAt() != null) {
+                throw new AppException(ErrorCode.PRODUCT_NOT_FOUND);
+            }
+        }
+
         double totalAmount = cart.getItems().stream()
                 .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
                 .sum();
@@ -52,18 +111,13 @@ public class OrderServiceImpl implements OrderService {
                 .recipientName(request.recipientName())
                 .address(request.address())
                 .phoneNumber(request.phoneNumber())
+                .idempotencyKey(idempotencyKey)
                 .totalAmount(totalAmount)
                 .status(OrderStatus.PENDING)
                 .orderItems(new ArrayList<>())
                 .build();
 
         for (CartItem cartItem : cart.getItems()) {
-            Product product = cartItem.getProduct();
-
-            if (product == null || product.getId() == null || !productRepository.existsById(product.getId())) {
-                throw new AppException(ErrorCode.PRODUCT_NOT_FOUND);
-            }
-
             OrderItem orderItem = OrderItem.builder()
                     .order(order)
                     .product(cartItem.getProduct())
@@ -73,14 +127,20 @@ public class OrderServiceImpl implements OrderService {
             order.getOrderItems().add(orderItem);
         }
 
+        inventoryService.reserve(order.getOrderItems());
         orderRepository.save(order);
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        // One DELETE instead of an orphan removal per line; the loaded collection is left untouched
+        // so Hibernate does not try to remove the rows a second time.
+        cartItemRepository.deleteAllByCartId(cart.getId());
+
+        return toOrderResponse(order);
+    }
 
+    private OrderResponse toOrderResponse(Order order) {
         List<OrderItemResponse> itemResponses = order.getOrderItems().stream()
                 .map(ToDtoMappers::toOrderItemResponse).toList();
 
-        return new OrderResponse(order.getId(), totalAmount, order.getStatus().name(), itemResponses);
+        return new OrderResponse(order.getId(), order.getTotalAmount(), order.getStatus().name(), itemResponses);
     }
 
     @Override
@@ -103,6 +163,37 @@ public class OrderServiceImpl implements OrderService {
         return orderPage.map(ToDtoMappers::toOrderSummaryResponse);
     }
 
+    @Override
+    public CursorPageResponse<OrderSummaryResponse> getOrderHistoryByCursor(Long userId, String cursor, int pageSize, boolean includeTotal) {
+        int limit = CursorUtil.pageSize(pageSize);
+        // One extra row tells whether another page follows without a count query.
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, fetch);
+        } else {
+            String[] parts = CursorUtil.decode(cursor, 2);
+            orders = orderRepository.findOrderHistoryAfter(
+                    userId,
+                    CursorUtil.parse(parts[0], LocalDateTime::parse),
+                    CursorUtil.parse(parts[1], Long::valueOf),
+                    fetch
+            );
+        }
+
+        boolean hasNext = orders.size() > limit;
+        List<Order> page = hasNext ? orders.subList(0, limit) : orders;
+        Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return new CursorPageResponse<>(
+                page.stream().map(ToDtoMappers::toOrderSummaryResponse).toList(),
+                hasNext ? CursorUtil.encode(last.getCreatedAt(), last.getId()) : null,
+                hasNext,
+                includeTotal ? orderRepository.countByUserId(userId) : null
+        );
+    }
+
+    @Transactional
     @Override
     public void cancelOrder(Long orderId, Long userId) {
         Order order = orderRepository.findById(orderId)
@@ -116,7 +207,10 @@ public class OrderServiceImpl implements OrderService {
             throw new AppException(ErrorCode.ORDER_CANNOT_BE_CANCELLED);
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        // A concurrent cancel may have won since the read; only the winner puts the stock back.
+        if (orderRepository.transitionStatus(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED) == 0) {
+            throw new AppException(ErrorCode.ORDER_CANNOT_BE_CANCELLED);
+        }
+        inventoryService.release(order.getOrderItems());
     }
 }
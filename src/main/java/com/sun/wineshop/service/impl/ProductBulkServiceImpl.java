@@ -0,0 +1,77 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.importer.ImportJob;
+import com.sun.wineshop.importer.ProductImportPipeline;
+import com.sun.wineshop.importer.ProductRowParser;
+import com.sun.wineshop.importer.codec.ProductBulkCodec;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.service.ProductBulkService;
+import com.sun.wineshop.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class ProductBulkServiceImpl implements ProductBulkService {
+
+    private static final int EXPORT_CHUNK_SIZE = 1_000;
+
+    private final ProductService productService;
+    private final ProductImportPipeline productImportPipeline;
+    private final Map<BulkFormat, ProductBulkCodec> codecs = new EnumMap<>(BulkFormat.class);
+
+    public ProductBulkServiceImpl(ProductService productService,
+                                  ProductImportPipeline productImportPipeline,
+                                  List<ProductBulkCodec> codecs) {
+        this.productService = productService;
+        this.productImportPipeline = productImportPipeline;
+        codecs.forEach(codec -> this.codecs.put(codec.format(), codec));
+    }
+
+    @Override
+    public void exportProducts(BulkFormat format, OutputStream out) {
+        try {
+            codec(format).write(out, consumer -> productService.forEachExportChunk(EXPORT_CHUNK_SIZE, consumer));
+        } catch (Exception e) {
+            log.error("Error when exporting products as {}: {}", format, e.getMessage(), e);
+            throw new AppException(ErrorCode.EXPORT_PRODUCT_FAIL);
+        }
+    }
+
+    @Override
+    public void importProducts(Path file, ImportJob job) {
+        try (ProductImportPipeline.ImportRun run = productImportPipeline.start(job)) {
+            ProductRowParser parser = new ProductRowParser(run, job);
+            codec(job.getFormat()).read(file, parser);
+            parser.finish();
+
+            if (job.getRowsParsed().get() == 0) {
+                throw new AppException(ErrorCode.IMPORT_FILE_EMPTY);
+            }
+            log.info("Import {} ({}) completed: {} products saved successfully, {} errors, {} rows/s",
+                    job.getId(), job.getFormat(), job.getRowsSaved().get(), job.getRowsFailed().get(),
+                    Math.round(job.rowsPerSecond()));
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error when importing {} file: {}", job.getFormat(), e.getMessage(), e);
+            throw new AppException(ErrorCode.IMPORT_PRODUCT_FAIL);
+        }
+    }
+
+    private ProductBulkCodec codec(BulkFormat format) {
+        ProductBulkCodec codec = codecs.get(format);
+        if (codec == null) {
+            throw new IllegalStateException("No codec registered for " + format);
+        }
+        return codec;
+    }
+}
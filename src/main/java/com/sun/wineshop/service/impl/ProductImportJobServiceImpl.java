@@ -0,0 +1,157 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.configuration.ImportProperties;
+import com.sun.wineshop.dto.response.ImportJobResponse;
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.importer.ImportJob;
+import com.sun.wineshop.mapper.ToDtoMappers;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.service.ProductBulkService;
+import com.sun.wineshop.service.ProductImportJobService;
+import com.sun.wineshop.utils.MessageUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+@Slf4j
+@Service
+public class ProductImportJobServiceImpl implements ProductImportJobService {
+
+    private final ProductBulkService productBulkService;
+    private final ImportProperties importProperties;
+    private final MessageUtil messageUtil;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ProductImportJobServiceImpl(ProductBulkService productBulkService,
+                                       ImportProperties importProperties,
+                                       MessageUtil messageUtil) {
+        this.productBulkService = productBulkService;
+        this.importProperties = importProperties;
+        this.messageUtil = messageUtil;
+        // Bounded queue: a burst of uploads is refused instead of piling up files and threads.
+        this.executor = new ThreadPoolExecutor(
+                importProperties.getWorkers(),
+                importProperties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importProperties.getQueueCapacity()),
+                Thread.ofPlatform().name("product-import-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public ImportJobResponse submit(MultipartFile file, BulkFormat format, ImportMode mode) {
+        if (file.isEmpty()) {
+            throw new AppException(ErrorCode.IMPORT_FILE_EMPTY);
+        }
+        BulkFormat resolvedFormat = format != null ? format : BulkFormat.fromFileName(file.getOriginalFilename());
+
+        String jobId = UUID.randomUUID().toString();
+        Path workDir = importProperties.getWorkDir();
+        ImportJob job = new ImportJob(
+                jobId,
+                file.getOriginalFilename(),
+                resolvedFormat,
+                mode,
+                workDir.resolve(jobId + "." + resolvedFormat.getExtension()),
+                workDir.resolve(jobId + "-errors.csv")
+        );
+
+        try {
+            // The upload is spooled to disk so the request can return while the file is processed.
+            Files.createDirectories(workDir);
+            file.transferTo(job.getFile());
+        } catch (IOException e) {
+            log.error("Could not store import file for job {}", jobId, e);
+            throw new AppException(ErrorCode.IMPORT_PRODUCT_FAIL);
+        }
+
+        jobs.put(jobId, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            deleteQuietly(job.getFile());
+            throw new AppException(ErrorCode.IMPORT_QUEUE_FULL);
+        }
+
+        return ToDtoMappers.toImportJobResponse(job);
+    }
+
+    @Override
+    public ImportJobResponse getJob(String jobId) {
+        return ToDtoMappers.toImportJobResponse(findJob(jobId));
+    }
+
+    @Override
+    public Resource getErrorReport(String jobId) {
+        ImportJob job = findJob(jobId);
+        if (!job.isFinished() || !Files.exists(job.getErrorReport())) {
+            throw new AppException(ErrorCode.IMPORT_ERROR_REPORT_NOT_FOUND);
+        }
+        return new FileSystemResource(job.getErrorReport());
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.import.cleanup-interval-ms:600000}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(importProperties.getJobRetention());
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getFinishedAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.getErrorReport());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ImportJob job) {
+        job.start();
+        try {
+            productBulkService.importProducts(job.getFile(), job);
+            job.complete();
+        } catch (AppException e) {
+            job.fail(messageUtil.getMessage(e.getErrorCode().getMessageKey(), e.getArgs()));
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.getId(), e);
+            job.fail(messageUtil.getMessage(ErrorCode.IMPORT_PRODUCT_FAIL.getMessageKey()));
+        } finally {
+            deleteQuietly(job.getFile());
+        }
+    }
+
+    private ImportJob findJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new AppException(ErrorCode.IMPORT_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+}
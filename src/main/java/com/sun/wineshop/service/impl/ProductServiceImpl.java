@@ -3,24 +3,60 @@ package com.sun.wineshop.service.impl;
 import com.sun.wineshop.dto.request.CreateProductRequest;
 import com.sun.wineshop.dto.request.ProductSearchRequest;
 import com.sun.wineshop.dto.request.UpdateProductRequest;
+import com.sun.wineshop.dto.response.BulkUpsertResult;
+import com.sun.wineshop.dto.response.CursorPageResponse;
+import com.sun.wineshop.dto.response.FacetCountResponse;
+import com.sun.wineshop.dto.response.FacetedProductSearchResponse;
+import com.sun.wineshop.dto.response.ProductCategoryNameRow;
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.dto.response.ProductFacetsResponse;
 import com.sun.wineshop.dto.response.ProductResponse;
+import com.sun.wineshop.event.ProductChangedEvent;
 import com.sun.wineshop.exception.AppException;
 import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.importer.ProductKey;
 import com.sun.wineshop.mapper.ToDtoMappers;
 import com.sun.wineshop.mapper.ToEntityMappers;
 import com.sun.wineshop.model.entity.Category;
 import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.ProductCursorSort;
 import com.sun.wineshop.repository.CategoryRepository;
 import com.sun.wineshop.repository.OrderItemRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
 import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.repository.ProductSearchRepository;
+import com.sun.wineshop.search.ProductFacetIndex;
+import com.sun.wineshop.search.ProductSearchIndex;
+import com.sun.wineshop.service.CategoryService;
 import com.sun.wineshop.service.ProductService;
+import com.sun.wineshop.utils.AppConstants;
+import com.sun.wineshop.utils.CursorUtil;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,29 +64,106 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
     private final OrderItemRepository orderItemRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Cacheable(value = AppConstants.PRODUCT_PAGE_CACHE, key = "#pageable")
     public Page<ProductResponse> getAllProducts(Pageable pageable) {
-        return productRepository.findAllByDeletedAtIsNull(pageable)
-                .map(ToDtoMappers::toProductResponse);
+        return toProductResponsePage(productRepository.findLiveIds(pageable));
     }
 
     @Override
     public Page<ProductResponse> searchProducts(ProductSearchRequest request, Pageable pageable) {
-        return productRepository.searchProducts(
-                request.name(),
-                request.minPrice(),
-                request.maxPrice(),
-                request.minAlcoholPercentage(),
-                request.maxAlcoholPercentage(),
-                request.categoryIds(),
-                pageable
-        ).map(ToDtoMappers::toProductResponse);
+        if (hasKeyword(request)) {
+            Optional<List<Long>> rankedIds = productSearchIndex.search(request.name());
+            if (rankedIds.isPresent()) {
+                return toProductResponsePage(searchRankedProductIds(rankedIds.get(), request, pageable));
+            }
+        }
+
+        return toProductResponsePage(productRepository.searchProductIds(request, null, pageable));
     }
 
     @Override
+    public FacetedProductSearchResponse searchProductsWithFacets(ProductSearchRequest request, Pageable pageable) {
+        List<Long> rankedIds = null;
+        if (hasKeyword(request)) {
+            Optional<List<Long>> keywordHits = productSearchIndex.search(request.name());
+            if (keywordHits.isEmpty()) {
+                return new FacetedProductSearchResponse(searchProducts(request, pageable), null);
+            }
+            rankedIds = keywordHits.get();
+        }
+
+        Optional<ProductFacetIndex.FacetSearchResult> result = productFacetIndex.search(request, rankedIds);
+        if (result.isEmpty()) {
+            return new FacetedProductSearchResponse(searchProducts(request, pageable), null);
+        }
+
+        Page<ProductResponse> products = pageable.getSort().isSorted()
+                ? searchProducts(request, pageable)
+                : toProductResponsePage(pageOf(result.get().matchingIds(), pageable));
+        return new FacetedProductSearchResponse(products, toProductFacetsResponse(result.get()));
+    }
+
+    @Override
+    public CursorPageResponse<ProductResponse> searchProductsByCursor(ProductSearchRequest request, ProductCursorSort sort,
+                                                                      String cursor, int pageSize, boolean includeTotal) {
+        Comparable<?> lastValue = null;
+        Long lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtil.decode(cursor, 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            lastValue = CursorUtil.parseNullable(parts[1], sort.getValueParser());
+            lastId = CursorUtil.parse(parts[2], Long::valueOf);
+        }
+
+        ProductSearchRequest filters = request;
+        List<Long> restrictToIds = null;
+        if (hasKeyword(request)) {
+            Optional<List<Long>> keywordHits = productSearchIndex.search(request.name());
+            if (keywordHits.isPresent()) {
+                if (keywordHits.get().isEmpty()) {
+                    return new CursorPageResponse<>(List.of(), null, false, includeTotal ? 0L : null);
+                }
+                filters = withoutKeyword(request);
+                restrictToIds = bestHits(keywordHits.get());
+            }
+        }
+
+        int limit = CursorUtil.pageSize(pageSize);
+        // One extra row tells whether another page follows without a count query.
+        List<ProductSearchRepository.SeekRow> rows =
+                productRepository.seekProducts(filters, restrictToIds, sort, lastValue, lastId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<ProductSearchRepository.SeekRow> page = hasNext ? rows.subList(0, limit) : rows;
+        List<Product> products = loadInOrder(page.stream().map(ProductSearchRepository.SeekRow::id).toList());
+
+        // The cursor comes from the seeked rows, so the next page still advances when some ids could not be loaded.
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSearchRepository.SeekRow last = page.get(page.size() - 1);
+            nextCursor = CursorUtil.encode(sort.name(), last.sortValue(), last.id());
+        }
+
+        return new CursorPageResponse<>(
+                products.stream().map(ToDtoMappers::toProductResponse).toList(),
+                nextCursor,
+                nextCursor != null,
+                includeTotal ? productRepository.countProducts(filters, restrictToIds) : null
+        );
+    }
+
+    @Override
+    @Cacheable(value = AppConstants.PRODUCT_CACHE, key = "#id")
     public ProductResponse getProductById(Long id) {
         return productRepository.findById(id)
                 .map(ToDtoMappers::toProductResponse)
@@ -58,44 +171,27 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @CacheEvict(value = AppConstants.PRODUCT_PAGE_CACHE, allEntries = true)
     public ProductResponse createProduct(CreateProductRequest request) {
-        List<Long> categoryIds = request.categoryIds();
-        List<Category> categories = categoryRepository.findAllById(categoryIds);
-
-        if (categories.size() != categoryIds.size()) {
-            throw new AppException(
-                    ErrorCode.CATEGORY_NOT_FOUND
-            );
-        }
+        List<Category> categories = categoryService.findAllByIds(request.categoryIds());
         Product product = ToEntityMappers.toProduct(request, categories);
-        Product saved = productRepository.save(product);
+        Product saved = saveUnique(product);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(saved));
 
         return ToDtoMappers.toProductResponse(saved);
     }
 
     @Override
+    @Caching(
+            put = @CachePut(value = AppConstants.PRODUCT_CACHE, key = "#id"),
+            evict = @CacheEvict(value = AppConstants.PRODUCT_PAGE_CACHE, allEntries = true)
+    )
     public ProductResponse updateProduct(Long id, UpdateProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
 
         if (request.categoryIds() != null) {
-            List<Long> categoryIdsRequest = request.categoryIds();
-            List<Category> categories = categoryRepository.findAllById(categoryIdsRequest);
-
-            if (categoryIdsRequest.size() != categories.size()) {
-                List<Long> foundIds = categories.stream().map(Category::getId).toList();
-                List<Long> missingIds = categoryIdsRequest.stream()
-                        .filter(idCategory -> !foundIds.contains(idCategory))
-                        .toList();
-
-                String idsString = missingIds.stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.joining(", "));
-
-                throw new AppException(ErrorCode.CATEGORY_SOME_NOT_FOUND, idsString);
-            }
-
-            product.setCategories(categories);
+            product.setCategories(categoryService.findAllByIds(request.categoryIds()));
         }
 
         product.setName(request.name());
@@ -107,12 +203,17 @@ public class ProductServiceImpl implements ProductService {
         product.setStockQuantity(request.stockQuantity());
         product.setAlcoholPercentage(request.alcoholPercentage());
 
-        Product saved = productRepository.save(product);
+        Product saved = saveUnique(product);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(saved));
 
         return ToDtoMappers.toProductResponse(saved);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = AppConstants.PRODUCT_CACHE, key = "#id"),
+            @CacheEvict(value = AppConstants.PRODUCT_PAGE_CACHE, allEntries = true)
+    })
     public void deleteProduct(Long id, boolean permanent) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOT_FOUND));
@@ -128,15 +229,233 @@ public class ProductServiceImpl implements ProductService {
                 productRepository.save(product);
             }
         }
+        eventPublisher.publishEvent(ProductChangedEvent.removed(id));
+    }
+
+    @Override
+    public void forEachExportChunk(int chunkSize, Consumer<List<ProductExportRow>> consumer) {
+        // Rows are read as projections, keyed on id, so no entities pile up in the persistence context.
+        long lastId = 0;
+        List<ProductExportRow> chunk;
+        do {
+            chunk = productRepository.findExportRowsAfter(lastId, PageRequest.of(0, chunkSize));
+            if (!chunk.isEmpty()) {
+                consumer.accept(withCategories(chunk));
+                lastId = chunk.get(chunk.size() - 1).id();
+            }
+        } while (chunk.size() == chunkSize);
     }
 
     @Override
-    public List<Product> getAllProductsForExport() {
-        return productRepository.findAll();
+    @CacheEvict(value = AppConstants.PRODUCT_PAGE_CACHE, allEntries = true)
+    public void bulkInsert(List<Product> products) {
+        productJdbcRepository.insertAll(products);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(products));
     }
 
+    // Rows are matched to live products on name, origin and volume; only rows whose fields differ are written.
     @Override
-    public void saveAll(List<Product> products) {
-        productRepository.saveAll(products);
+    @Transactional
+    @CacheEvict(value = {AppConstants.PRODUCT_CACHE, AppConstants.PRODUCT_PAGE_CACHE}, allEntries = true)
+    public BulkUpsertResult bulkUpsert(List<Product> products) {
+        Set<String> names = products.stream().map(Product::getName).collect(Collectors.toSet());
+        Map<ProductKey, Product> existing = new HashMap<>();
+        productRepository.findLiveWithCategoriesByNameIn(names).stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .forEach(product -> existing.putIfAbsent(ProductKey.of(product), product));
+
+        List<Product> inserts = new ArrayList<>();
+        List<Product> updates = new ArrayList<>();
+        List<Product> categoriesChanged = new ArrayList<>();
+        int unchanged = 0;
+        for (Product product : products) {
+            Product current = existing.get(ProductKey.of(product));
+            if (current == null) {
+                inserts.add(product);
+                continue;
+            }
+
+            product.setId(current.getId());
+            product.setCreatedAt(current.getCreatedAt());
+            boolean fieldsChanged = !sameFields(current, product);
+            boolean linksChanged = !categoryIds(current).equals(categoryIds(product));
+            if (!fieldsChanged && !linksChanged) {
+                unchanged++;
+                continue;
+            }
+            updates.add(product);
+            if (linksChanged) {
+                categoriesChanged.add(product);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            // Another import may have created one of these keys since it was read; the unique key turns that into an update.
+            productJdbcRepository.upsertAll(inserts);
+            assignIds(inserts);
+            productJdbcRepository.replaceCategories(inserts);
+        }
+        if (!updates.isEmpty()) {
+            productJdbcRepository.updateAll(updates, categoriesChanged);
+        }
+
+        List<Product> written = new ArrayList<>(inserts);
+        written.addAll(updates);
+        if (!written.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.changed(written));
+        }
+        return new BulkUpsertResult(inserts.size(), updates.size(), unchanged);
+    }
+
+    // Category names of a whole chunk come from one query, so exported files carry the column imports require.
+    private List<ProductExportRow> withCategories(List<ProductExportRow> chunk) {
+        Map<Long, List<String>> names = productRepository.findCategoryNamesByProductIdIn(
+                        chunk.stream().map(ProductExportRow::id).toList()).stream()
+                .collect(Collectors.groupingBy(ProductCategoryNameRow::productId,
+                        Collectors.mapping(ProductCategoryNameRow::categoryName, Collectors.toList())));
+        return chunk.stream()
+                .map(row -> row.withCategories(names.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    private Product saveUnique(Product product) {
+        try {
+            return productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw new AppException(ErrorCode.PRODUCT_EXISTED);
+        }
+    }
+
+    private void assignIds(List<Product> products) {
+        Map<ProductKey, Product> stored = new HashMap<>();
+        productJdbcRepository.findLiveKeys(products.stream().map(Product::getName).collect(Collectors.toSet()))
+                .forEach(row -> stored.putIfAbsent(ProductKey.of(row), row));
+        for (Product product : products) {
+            Product row = stored.get(ProductKey.of(product));
+            if (row == null) {
+                throw new IllegalStateException("Upserted product not found: " + ProductKey.of(product));
+            }
+            product.setId(row.getId());
+            product.setCreatedAt(row.getCreatedAt());
+        }
+    }
+
+    // Keyword hits come ranked from the in-memory index. In relevance order they are filtered and paged by the
+    // facet index; a column sort, or a facet index still loading, leaves the remaining filters to the database.
+    private Page<Long> searchRankedProductIds(List<Long> rankedIds, ProductSearchRequest request, Pageable pageable) {
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        ProductSearchRequest filters = withoutKeyword(request);
+        if (pageable.getSort().isUnsorted()) {
+            Optional<ProductFacetIndex.FacetSearchResult> result = productFacetIndex.search(filters, rankedIds);
+            if (result.isPresent()) {
+                return pageOf(result.get().matchingIds(), pageable);
+            }
+        }
+
+        List<Long> bestHits = bestHits(rankedIds);
+        if (pageable.getSort().isSorted()) {
+            return productRepository.searchProductIds(filters, bestHits, pageable);
+        }
+
+        Set<Long> matchingIds = new HashSet<>(
+                productRepository.searchProductIds(filters, bestHits, Pageable.unpaged()).getContent());
+        return pageOf(bestHits.stream().filter(matchingIds::contains).toList(), pageable);
+    }
+
+    // The hits handed to the database as an id IN (...) list, which gets costly to parse and plan past a point.
+    private static List<Long> bestHits(List<Long> rankedIds) {
+        return rankedIds.size() > AppConstants.MAX_SEARCH_HITS
+                ? rankedIds.subList(0, AppConstants.MAX_SEARCH_HITS)
+                : rankedIds;
+    }
+
+    private Page<Long> pageOf(List<Long> orderedIds, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(orderedIds);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), orderedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), orderedIds.size());
+        return new PageImpl<>(orderedIds.subList(from, to), pageable, orderedIds.size());
+    }
+
+    private ProductFacetsResponse toProductFacetsResponse(ProductFacetIndex.FacetSearchResult result) {
+        // Category names are read fresh so that renames show up without touching the index.
+        Map<Long, String> categoryNames = categoryRepository.findAllById(result.categoryCounts().keySet()).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        List<FacetCountResponse> categories = result.categoryCounts().entrySet().stream()
+                .filter(entry -> categoryNames.containsKey(entry.getKey()))
+                .map(entry -> new FacetCountResponse(
+                        String.valueOf(entry.getKey()), categoryNames.get(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetCountResponse::count).reversed()
+                        .thenComparing(FacetCountResponse::label))
+                .toList();
+
+        return new ProductFacetsResponse(
+                categories,
+                toFacetCounts(result.originCounts()),
+                toFacetCounts(result.priceRangeCounts()),
+                toFacetCounts(result.alcoholRangeCounts())
+        );
+    }
+
+    private List<FacetCountResponse> toFacetCounts(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetCountResponse(entry.getKey(), entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private boolean sameFields(Product current, Product incoming) {
+        return Objects.equals(current.getDescription(), incoming.getDescription())
+                && Objects.equals(current.getPrice(), incoming.getPrice())
+                && Objects.equals(current.getStockQuantity(), incoming.getStockQuantity())
+                && Objects.equals(current.getAlcoholPercentage(), incoming.getAlcoholPercentage())
+                && Objects.equals(current.getImageUrl(), incoming.getImageUrl());
+    }
+
+    private Set<Long> categoryIds(Product product) {
+        return product.getCategories() == null
+                ? Set.of()
+                : product.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+    }
+
+    private ProductSearchRequest withoutKeyword(ProductSearchRequest request) {
+        return new ProductSearchRequest(
+                null,
+                request.minPrice(),
+                request.maxPrice(),
+                request.minAlcoholPercentage(),
+                request.maxAlcoholPercentage(),
+                request.categoryIds()
+        );
+    }
+
+    private boolean hasKeyword(ProductSearchRequest request) {
+        return request.name() != null && !request.name().isBlank();
+    }
+
+    // Products of a page are hydrated with their categories in one fetch join, in the order of the id page.
+    // Ids served from an in-memory index may already be gone from the database and are skipped.
+    private Page<ProductResponse> toProductResponsePage(Page<Long> idPage) {
+        List<ProductResponse> content = loadInOrder(idPage.getContent()).stream()
+                .map(ToDtoMappers::toProductResponse)
+                .toList();
+        return new PageImpl<>(content, idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    private List<Product> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllWithCategoriesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
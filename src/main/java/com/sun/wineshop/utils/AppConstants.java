@@ -12,8 +12,24 @@ public class AppConstants {
     //Pageable
     public static final String DEFAULT_PAGE_NUMBER = "0";
     public static final String DEFAULT_PAGE_SIZE = "10";
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     // Product
-    public static  final String EXPORT_PRODUCT_FILE_NAME="attachment; filename=products.xlsx";
+    public static  final String EXPORT_PRODUCT_FILE_NAME="attachment; filename=products.%s";
     public static  final String IMPORT_TYPE="file";
+    public static  final String IMPORT_ERROR_REPORT_FILE_NAME="attachment; filename=import-errors.csv";
+
+    // Search
+    public static final int MAX_SEARCH_HITS = 1_000;
+
+    // Cart
+    public static final int MAX_CART_OPERATIONS = 200;
+
+    // Order
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    // Cache
+    public static final String PRODUCT_CACHE = "products";
+    public static final String PRODUCT_PAGE_CACHE = "productPages";
 }
@@ -0,0 +1,58 @@
+package com.sun.wineshop.utils;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+// Continuation tokens for keyset pages: the sort values of the last row, opaque to clients.
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {
+    }
+
+    public static String encode(Object... values) {
+        StringBuilder raw = new StringBuilder();
+        for (Object value : values) {
+            if (!raw.isEmpty()) {
+                raw.append(SEPARATOR);
+            }
+            // Null values are written as empty parts and read back with parseNullable.
+            raw.append(value == null ? "" : value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    public static <T> T parse(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    public static <T> T parseNullable(String value, Function<String, T> parser) {
+        return value.isEmpty() ? null : parse(value, parser);
+    }
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, AppConstants.MAX_CURSOR_PAGE_SIZE));
+    }
+}
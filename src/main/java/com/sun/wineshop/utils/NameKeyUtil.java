@@ -0,0 +1,22 @@
+package com.sun.wineshop.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Comparison keys for names, matching the accent- and case-insensitive collation of the unique keys.
+public class NameKeyUtil {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private NameKeyUtil() {
+    }
+
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
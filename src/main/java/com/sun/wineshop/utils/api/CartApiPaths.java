@@ -7,5 +7,6 @@ public class CartApiPaths {
         public static final String ADD = "/add";
         public static final String UPDATE_QUANTITY = "/update-quantity";
         public static final String REMOVE_ITEM = "/remove-item";
+        public static final String BULK_UPDATE = "/bulk-update";
     }
 }
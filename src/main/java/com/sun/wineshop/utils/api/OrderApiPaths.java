@@ -5,5 +5,6 @@ public class OrderApiPaths {
 
     public static class Endpoint {
         public static final String CANCEL = "/{orderId}/cancel";
+        public static final String HISTORY_CURSOR = "/cursor";
     }
 }
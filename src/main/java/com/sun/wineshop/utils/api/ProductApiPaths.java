@@ -3,10 +3,16 @@ package com.sun.wineshop.utils.api;
 public class ProductApiPaths {
     public static final String BASE = "/api/v1/products";
     public static final String BASE_ALL = BASE + "/**";
+    public static final String IMPORT_ALL = BASE + Endpoint.IMPORT + "/**";
 
     public static class Endpoint {
         public static final String SEARCH = "/search";
+        public static final String SEARCH_FACETS = SEARCH + "/facets";
+        public static final String CURSOR = "/cursor";
+        public static final String SEARCH_CURSOR = SEARCH + CURSOR;
         public static final String EXPORT = "/export";
         public static final String IMPORT = "/import";
+        public static final String IMPORT_JOB = IMPORT + "/jobs/{jobId}";
+        public static final String IMPORT_JOB_ERRORS = IMPORT_JOB + "/errors";
     }
 }
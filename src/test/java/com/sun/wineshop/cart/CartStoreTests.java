@@ -0,0 +1,190 @@
+package com.sun.wineshop.cart;
+
+import com.sun.wineshop.configuration.CartStoreProperties;
+import com.sun.wineshop.repository.CartJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CartStoreTests {
+
+    private final CartJdbcRepository repository = mock(CartJdbcRepository.class);
+    private final CartStoreProperties properties = new CartStoreProperties();
+    private final List<List<CartJdbcRepository.CartWrite>> writeCalls = new ArrayList<>();
+    // Users whose write is rejected, as for a cart hitting a constraint; the whole batch fails with them.
+    private final Set<Long> failingUsers = new HashSet<>();
+    private boolean databaseDown;
+    private CartStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties.setWriteBehind(true);
+        when(repository.findByUserId(anyLong()))
+                .thenAnswer(invocation -> new CartJdbcRepository.StoredCart(null, new LinkedHashMap<>()));
+        when(repository.writeAll(anyList())).thenAnswer(invocation -> {
+            List<CartJdbcRepository.CartWrite> writes = invocation.getArgument(0);
+            writeCalls.add(writes);
+            if (databaseDown || writes.stream().anyMatch(write -> failingUsers.contains(write.userId()))) {
+                throw new IllegalStateException("write failed");
+            }
+            Map<Long, Long> created = new HashMap<>();
+            writes.forEach(write -> created.put(write.userId(), write.userId() * 10));
+            return created;
+        });
+    }
+
+    @Test
+    void changesAreCoalescedIntoOneBatch() {
+        store = new CartStore(properties, repository);
+        store.update(1L, cart -> cart.add(100L, 1));
+        store.update(1L, cart -> cart.add(100L, 2));
+        store.update(1L, cart -> cart.add(101L, 1));
+        store.update(2L, cart -> cart.set(100L, 4));
+
+        store.flush();
+
+        assertEquals(1, writeCalls.size());
+        Map<Long, Map<Long, Integer>> written = new HashMap<>();
+        writeCalls.getFirst().forEach(write -> written.put(write.userId(), write.quantities()));
+        assertEquals(Map.of(1L, Map.of(100L, 3, 101L, 1), 2L, Map.of(100L, 4)), written);
+        assertEquals(Long.valueOf(10L), store.snapshot(1L).cartId());
+
+        store.flush();
+        assertEquals(1, writeCalls.size());
+    }
+
+    @Test
+    void failedBatchIsRetriedCartByCart() {
+        store = new CartStore(properties, repository);
+        failingUsers.add(2L);
+        for (long userId = 1; userId <= 3; userId++) {
+            store.update(userId, cart -> cart.add(100L, 1));
+        }
+
+        store.flush();
+
+        assertEquals(Long.valueOf(10L), store.snapshot(1L).cartId());
+        assertEquals(Long.valueOf(30L), store.snapshot(3L).cartId());
+        assertNull(store.snapshot(2L).cartId());
+
+        // Only the failed cart is still dirty.
+        failingUsers.clear();
+        writeCalls.clear();
+        store.flush();
+        assertEquals(1, writeCalls.size());
+        assertEquals(2L, writeCalls.getFirst().getFirst().userId());
+    }
+
+    @Test
+    void cartThatKeepsFailingIsDropped() {
+        properties.setMaxWriteAttempts(2);
+        store = new CartStore(properties, repository);
+        failingUsers.add(2L);
+
+        for (int round = 0; round < 2; round++) {
+            store.update(1L, cart -> cart.add(100L, 1));
+            store.update(2L, cart -> cart.add(100L, 1));
+            store.flush();
+        }
+
+        // The database copy is loaded again instead of the cart holding the unwritable lines.
+        assertEquals(Map.of(), store.snapshot(2L).lines());
+        verify(repository, times(2)).findByUserId(2L);
+        writeCalls.clear();
+        store.flush();
+        assertTrue(writeCalls.isEmpty());
+    }
+
+    @Test
+    void outageDropsNoCart() {
+        properties.setMaxWriteAttempts(2);
+        store = new CartStore(properties, repository);
+        databaseDown = true;
+        for (long userId = 1; userId <= 10; userId++) {
+            store.update(userId, cart -> cart.add(100L, 1));
+        }
+
+        for (int round = 0; round < 5; round++) {
+            writeCalls.clear();
+            store.flush();
+            // The batch, then single carts until the database is taken to be down.
+            assertEquals(4, writeCalls.size());
+        }
+
+        for (long userId = 1; userId <= 10; userId++) {
+            assertEquals(Map.of(100L, 1), store.snapshot(userId).lines());
+        }
+        verify(repository, times(10)).findByUserId(anyLong());
+    }
+
+    @Test
+    void maxCartsHoldsWhileDirtyCartsCannotBeWritten() {
+        properties.setMaxCarts(2);
+        store = new CartStore(properties, repository);
+        databaseDown = true;
+        for (long userId = 1; userId <= 4; userId++) {
+            store.update(userId, cart -> cart.add(100L, 1));
+        }
+
+        store.flush();
+
+        // The two least recently used carts were dropped and are loaded again.
+        for (long userId = 1; userId <= 4; userId++) {
+            store.snapshot(userId);
+        }
+        verify(repository, times(2)).findByUserId(1L);
+        verify(repository, times(2)).findByUserId(2L);
+        verify(repository, times(1)).findByUserId(3L);
+        verify(repository, times(1)).findByUserId(4L);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedCartsOverTheBound() {
+        properties.setMaxCarts(1);
+        store = new CartStore(properties, repository);
+        store.update(1L, cart -> cart.add(100L, 1));
+        store.update(2L, cart -> cart.add(100L, 1));
+
+        store.flush();
+
+        store.snapshot(1L);
+        store.snapshot(2L);
+        verify(repository, times(2)).findByUserId(1L);
+        verify(repository, times(1)).findByUserId(2L);
+    }
+
+    @Test
+    void checkoutWritesPendingChangesFirst() {
+        store = new CartStore(properties, repository);
+        store.update(1L, cart -> cart.add(100L, 2));
+
+        String result = store.checkout(1L, () -> {
+            assertEquals(1, writeCalls.size());
+            return "placed";
+        });
+
+        assertEquals("placed", result);
+        store.flush();
+        assertEquals(1, writeCalls.size());
+        assertEquals(Map.of(), store.snapshot(1L).lines());
+    }
+
+    @Test
+    void failedWriteMarksItsLinesAgain() {
+        CartState cart = new CartState(1L, 5L, Map.of(100L, 1, 101L, 2));
+        cart.set(100L, 3);
+        cart.remove(101L);
+
+        CartJdbcRepository.CartWrite write = cart.drain();
+        assertEquals(Map.of(100L, 3, 101L, 0), write.quantities());
+        assertFalse(cart.isDirty());
+
+        cart.writeFailed(write);
+        assertEquals(Set.of(100L, 101L), cart.unwritten());
+    }
+}
@@ -0,0 +1,99 @@
+package com.sun.wineshop.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyRegistryTests {
+
+    private static final int THREADS = 16;
+
+    private final IdempotencyRegistry registry = new IdempotencyRegistry(new IdempotencyProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void concurrentDuplicatesShareOneRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(() -> registry.execute("7:key", () -> {
+            runs.incrementAndGet();
+            await(release);
+            return "order-1";
+        }));
+        // Every duplicate is either waiting on the first run or served from the store afterwards.
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("order-1", result.get(30, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void laterRetryIsServedFromTheStore() {
+        AtomicInteger runs = new AtomicInteger();
+
+        registry.execute("7:key", () -> "order-" + runs.incrementAndGet());
+        String retried = registry.execute("7:key", () -> "order-" + runs.incrementAndGet());
+
+        assertEquals("order-1", retried);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void keysAreIndependent() {
+        assertEquals("a", registry.execute("7:a", () -> "a"));
+        assertEquals("b", registry.execute("7:b", () -> "b"));
+        assertEquals("b", registry.execute("8:a", () -> "b"));
+    }
+
+    @Test
+    void failureIsSharedWithWaitersButNotStored() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(() -> registry.execute("7:key", () -> {
+            await(release);
+            throw new IllegalStateException("out of stock");
+        }));
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(30, TimeUnit.SECONDS));
+            assertEquals("out of stock", e.getCause().getMessage());
+        }
+
+        assertEquals("order-2", registry.execute("7:key", () -> "order-2"));
+    }
+
+    private static List<Future<String>> runConcurrently(Callable<String> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        // Give the duplicates time to find the first run in flight.
+        Thread.sleep(100);
+        return futures;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
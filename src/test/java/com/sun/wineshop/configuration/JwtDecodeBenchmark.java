@@ -0,0 +1,107 @@
+package com.sun.wineshop.configuration;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.wineshop.repository.InvalidatedTokenRepository;
+import com.sun.wineshop.service.TokenRevocationService;
+import com.sun.wineshop.utils.MessageUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+// Per-request cost of turning a bearer token into a Jwt. TWO_PASS is the decoder this replaced: a new
+// MACVerifier, a parse and an HMAC check in AuthenticationService, then Nimbus parsing and verifying
+// the same token again (its invalidated_token lookup is left out). SINGLE_PASS is CustomJwtDecoder
+// with its decode cache disabled, CACHED the same decoder answering a token it has seen.
+// Run with: mvn test-compile, then the main method below from the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecodeBenchmark {
+
+    private static final String SIGNER_KEY = "lbMfTWNvhHb1dIkUFyn04zQxyqaVNSXmxdmaAv5IT97MIEQhY0ujJfqFeP/GcWBn";
+
+    @Param({"TWO_PASS", "SINGLE_PASS", "CACHED"})
+    private String path;
+
+    private String token;
+    private NimbusJwtDecoder twoPassDecoder;
+    private CustomJwtDecoder customJwtDecoder;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("42")
+                .issuer("wineshop.com")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", "ROLE_USER")
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), claims);
+        signedJWT.sign(new MACSigner(SIGNER_KEY.getBytes()));
+        token = signedJWT.serialize();
+
+        twoPassDecoder = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(SIGNER_KEY.getBytes(), "HS512"))
+                .macAlgorithm(MacAlgorithm.HS512).build();
+
+        SecurityProperties securityProperties = new SecurityProperties();
+        securityProperties.setJwt(new SecurityProperties.Jwt());
+        securityProperties.getJwt().setSignerKey(SIGNER_KEY);
+        if (path.equals("SINGLE_PASS")) {
+            securityProperties.getJwt().getDecodeCache().setMaxSize(0);
+        }
+        MessageUtil messageUtil = new MessageUtil(new StaticMessageSource());
+        TokenRevocationService revocationService =
+                new TokenRevocationService(mock(InvalidatedTokenRepository.class), securityProperties);
+        customJwtDecoder = new CustomJwtDecoder(securityProperties,
+                new TokenRevocationValidator(revocationService, messageUtil),
+                new DecodedJwtCache(securityProperties, new SimpleMeterRegistry()),
+                revocationService, messageUtil);
+    }
+
+    @Benchmark
+    public Jwt decode() throws Exception {
+        return path.equals("TWO_PASS") ? decodeTwice() : customJwtDecoder.decode(token);
+    }
+
+    private Jwt decodeTwice() throws Exception {
+        SignedJWT signedJWT = SignedJWT.parse(token);
+        Date expiration = signedJWT.getJWTClaimsSet().getExpirationTime();
+        if (!(signedJWT.verify(new MACVerifier(SIGNER_KEY.getBytes())) && expiration.after(new Date()))) {
+            throw new JwtException("invalid token");
+        }
+        return twoPassDecoder.decode(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtDecodeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,125 @@
+package com.sun.wineshop.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UniqueKeyMigrationTests {
+
+    private static final Map<String, String> ALL_KEYS = Map.of(
+            "CART", "uk_cart_user",
+            "cart_item", "UK_CART_ITEM_CART_PRODUCT",
+            "products", "uk_products_live_name_origin_volume");
+    private static final Map<String, String> WITHOUT_CART_ITEM_KEY = Map.of(
+            "cart", "uk_cart_user",
+            "products", "uk_products_live_name_origin_volume");
+
+    private final JdbcTemplate session = mock(JdbcTemplate.class);
+    private final UniqueKeyMigration migration = new UniqueKeyMigration(mock(JdbcTemplate.class));
+
+    @Test
+    void doesNothingWhenAllKeysExist() {
+        givenUniqueKeys(ALL_KEYS);
+
+        migration.migrate(session, TransactionOperations.withoutTransaction());
+
+        verify(session, never()).queryForObject(anyString(), eq(Integer.class), any(Object[].class));
+        verify(session, never()).execute(anyString());
+    }
+
+    @Test
+    void mergesDuplicatesAndAddsOnlyTheMissingKey() {
+        givenUniqueKeys(WITHOUT_CART_ITEM_KEY, WITHOUT_CART_ITEM_KEY);
+        givenLock(1);
+        when(session.update(anyString())).thenReturn(2);
+
+        migration.migrate(session, TransactionOperations.withoutTransaction());
+
+        verify(session).update(contains("SET ci.quantity = k.quantity"));
+        verify(session).update(startsWith("DELETE ci FROM cart_item"));
+        verify(session).execute(contains("ADD CONSTRAINT uk_cart_item_cart_product"));
+        verify(session, never()).execute(contains("ADD CONSTRAINT uk_cart_user"));
+        verify(session, never()).execute(contains("ADD CONSTRAINT uk_products_live_name_origin_volume"));
+        verify(session).queryForObject(startsWith("SELECT RELEASE_LOCK"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    void skipsKeysAddedByAnotherInstanceWhileWaitingForTheLock() {
+        givenUniqueKeys(WITHOUT_CART_ITEM_KEY, ALL_KEYS);
+        givenLock(1);
+
+        migration.migrate(session, TransactionOperations.withoutTransaction());
+
+        verify(session, never()).update(anyString());
+        verify(session, never()).execute(anyString());
+        verify(session).queryForObject(startsWith("SELECT RELEASE_LOCK"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    void leavesTheSchemaAloneWithoutTheLock() {
+        givenUniqueKeys(WITHOUT_CART_ITEM_KEY, WITHOUT_CART_ITEM_KEY);
+        givenLock(0);
+
+        migration.migrate(session, TransactionOperations.withoutTransaction());
+
+        verify(session, never()).update(anyString());
+        verify(session, never()).execute(anyString());
+    }
+
+    @Test
+    void failedKeyDoesNotStopTheOthersOrStartup() {
+        givenUniqueKeys(Map.of(), Map.of());
+        givenLock(1);
+        doThrow(new BadSqlGrammarException("add key", "ALTER TABLE cart", new SQLException("Duplicate entry")))
+                .when(session).execute(contains("ADD CONSTRAINT uk_cart_user"));
+
+        assertDoesNotThrow(() -> migration.migrate(session, TransactionOperations.withoutTransaction()));
+
+        verify(session).execute(contains("ADD CONSTRAINT uk_cart_item_cart_product"));
+        verify(session).execute(contains("ADD CONSTRAINT uk_products_live_name_origin_volume"));
+        verify(session).queryForObject(startsWith("SELECT RELEASE_LOCK"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startsWhenTheDatabaseCannotBeChecked() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DataAccessResourceFailureException("no connection"));
+
+        assertDoesNotThrow(() -> new UniqueKeyMigration(jdbcTemplate).run(null));
+    }
+
+    @SafeVarargs
+    private void givenUniqueKeys(Map<String, String>... keysPerQuery) {
+        int[] call = {0};
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            Map<String, String> keys = keysPerQuery[Math.min(call[0]++, keysPerQuery.length - 1)];
+            for (Map.Entry<String, String> key : keys.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(key.getKey());
+                when(rs.getString(2)).thenReturn(key.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(session).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    private void givenLock(int acquired) {
+        when(session.queryForObject(startsWith("SELECT GET_LOCK"), eq(Integer.class), any(Object[].class)))
+                .thenReturn(acquired);
+    }
+}
@@ -0,0 +1,159 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.configuration.ImportProperties;
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.importer.codec.CsvProductCodec;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.repository.CategoryJdbcRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
+import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.search.ProductFacetIndex;
+import com.sun.wineshop.search.ProductSearchIndex;
+import com.sun.wineshop.service.ProductBulkService;
+import com.sun.wineshop.service.impl.CategoryServiceImpl;
+import com.sun.wineshop.service.impl.ProductBulkServiceImpl;
+import com.sun.wineshop.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+// Rows per second through the whole CSV import: parsing, the writer pipeline and the JDBC batches.
+// Runs on H2 in MySQL mode by default; for numbers that mean something point it at a local MySQL with
+// -Dbenchmark.datasource.url=jdbc:mysql://localhost:3306/wine_shop_bench?rewriteBatchedStatements=true
+// (plus .username and .password), whose schema is created by ddl-auto.
+// Run with: mvn test-compile, then the main method below from the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Param({"INSERT", "UPSERT"})
+    private ImportMode mode;
+
+    private ConfigurableApplicationContext context;
+    private ProductBulkService productBulkService;
+    private Path workDir;
+    private Path file;
+    private int invocation;
+
+    // A plain source rather than a @Configuration, so the application's component scan does not pick it up.
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Product.class)
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+    @Import({ProductBulkServiceImpl.class, ProductImportPipeline.class, ProductServiceImpl.class, CategoryServiceImpl.class,
+            ProductJdbcRepository.class, CategoryJdbcRepository.class, CsvProductCodec.class, ImportProperties.class})
+    static class Config {
+
+        @Bean
+        ProductSearchIndex productSearchIndex() {
+            return mock(ProductSearchIndex.class);
+        }
+
+        @Bean
+        ProductFacetIndex productFacetIndex() {
+            return mock(ProductFacetIndex.class);
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        String url = System.getProperty("benchmark.datasource.url");
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.jpa.open-in-view=false",
+                "logging.level.root=WARN"));
+        if (url == null) {
+            properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:import-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                    "spring.jpa.hibernate.ddl-auto=none",
+                    "spring.sql.init.schema-locations=classpath:schema-h2.sql"));
+        } else {
+            properties.addAll(List.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "root"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                    "spring.jpa.hibernate.ddl-auto=update"));
+        }
+        context = new SpringApplicationBuilder(Config.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        productBulkService = context.getBean(ProductBulkService.class);
+        workDir = Files.createTempDirectory("import-benchmark");
+        file = workDir.resolve("products.csv");
+    }
+
+    // A fresh file per import: new names for INSERT, new prices for the same names for UPSERT.
+    @Setup(Level.Invocation)
+    public void writeFile() throws Exception {
+        invocation++;
+        String namePrefix = mode == ImportMode.INSERT ? "Wine " + invocation + "-" : "Wine ";
+        List<ProductExportRow> rows = new ArrayList<>(ROWS);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= ROWS; id++) {
+            rows.add(new ProductExportRow(id, namePrefix + id, "Notes of plum, cherry and oak for wine " + id,
+                    10 + id % 90 + invocation / 100.0, (int) (id % 500), 11 + id % 5 * 0.5, 750, "Origin " + id % 40,
+                    "https://images.example.com/products/" + id + ".png", createdAt,
+                    List.of("Red", "Category " + id % 12)));
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            new CsvProductCodec().write(out, consumer -> {
+                for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+                    consumer.accept(rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size())));
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(workDir.resolve("errors.csv"));
+        Files.deleteIfExists(workDir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long importFile() {
+        ImportJob job = new ImportJob("benchmark", "products.csv", BulkFormat.CSV, mode, file, workDir.resolve("errors.csv"));
+        job.start();
+        productBulkService.importProducts(file, job);
+        if (job.getRowsFailed().get() > 0) {
+            throw new IllegalStateException(job.getRowsFailed().get() + " rows failed to import");
+        }
+        return job.getRowsSaved().get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.configuration.ImportProperties;
+import com.sun.wineshop.dto.response.BulkUpsertResult;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.service.CategoryService;
+import com.sun.wineshop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductImportPipelineTests {
+
+    @TempDir
+    Path workDir;
+
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductImportPipeline pipeline =
+            new ProductImportPipeline(categoryService, productService, new ImportProperties());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertKeepsTheLastRowOfARepeatedKey() {
+        when(categoryService.findOrCreateByNames(anyList())).thenReturn(Map.of());
+        when(productService.bulkUpsert(anyList())).thenReturn(new BulkUpsertResult(1, 1, 0));
+        ImportJob job = job(ImportMode.UPSERT);
+
+        run(job, List.of(row(2, "Merlot", 10.0), row(3, "Syrah", 12.0), row(4, "merlot ", 11.0)));
+
+        ArgumentCaptor<List<Product>> written = ArgumentCaptor.forClass(List.class);
+        verify(productService).bulkUpsert(written.capture());
+        assertEquals(List.of(11.0, 12.0), written.getValue().stream().map(Product::getPrice).sorted().toList());
+        assertEquals(2, job.getRowsSaved().get());
+        assertEquals(1, job.getRowsFailed().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void accentVariantsInOneFileAreOneProduct() {
+        when(categoryService.findOrCreateByNames(anyList())).thenReturn(Map.of());
+        when(productService.bulkUpsert(anyList())).thenReturn(new BulkUpsertResult(1, 0, 0));
+        ImportJob job = job(ImportMode.UPSERT);
+
+        run(job, List.of(row(2, "Rosé d'Anjou", 10.0), row(3, "ROSE D'ANJOU", 11.0)));
+
+        ArgumentCaptor<List<Product>> written = ArgumentCaptor.forClass(List.class);
+        verify(productService).bulkUpsert(written.capture());
+        assertEquals(List.of(11.0), written.getValue().stream().map(Product::getPrice).toList());
+        assertEquals(1, job.getRowsFailed().get());
+    }
+
+    @Test
+    void failedBatchCountsEachRowOnce() {
+        when(categoryService.findOrCreateByNames(anyList())).thenReturn(Map.of());
+        when(productService.bulkUpsert(anyList())).thenThrow(new IllegalStateException("deadlock"));
+        ImportJob job = job(ImportMode.UPSERT);
+
+        run(job, List.of(row(2, "Merlot", 10.0), row(3, "Merlot", 11.0), row(4, "Syrah", 12.0)));
+
+        // One superseded row plus the two rows of the failed write.
+        assertEquals(3, job.getRowsFailed().get());
+        assertEquals(0, job.getRowsSaved().get());
+    }
+
+    private void run(ImportJob job, List<ImportRow> rows) {
+        try (ProductImportPipeline.ImportRun run = pipeline.start(job)) {
+            run.submit(rows);
+            run.finish();
+        }
+        job.complete();
+    }
+
+    private ImportJob job(ImportMode mode) {
+        return new ImportJob("job", "products.csv", BulkFormat.CSV, mode,
+                workDir.resolve("products.csv"), workDir.resolve("errors.csv"));
+    }
+
+    private static ImportRow row(int rowNumber, String name, Double price) {
+        Product product = Product.builder()
+                .name(name)
+                .origin("France")
+                .volume(750)
+                .price(price)
+                .build();
+        return new ImportRow(rowNumber, product, List.of());
+    }
+}
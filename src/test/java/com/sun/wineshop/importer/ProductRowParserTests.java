@@ -0,0 +1,62 @@
+package com.sun.wineshop.importer;
+
+import com.sun.wineshop.configuration.ImportProperties;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.BulkFormat;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.service.CategoryService;
+import com.sun.wineshop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductRowParserTests {
+
+    private static final List<String> HEADER = List.of(
+            "Name", "Description", "Price", "Stock", "Alcohol", "Volume", "Origin", "Image URL", "Categories");
+
+    @TempDir
+    Path workDir;
+
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductImportPipeline pipeline =
+            new ProductImportPipeline(categoryService, productService, new ImportProperties());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nonNumericCellRejectsTheRowIntoTheErrorReport() throws Exception {
+        when(categoryService.findOrCreateByNames(anyList())).thenReturn(Map.of());
+        ImportJob job = new ImportJob("job", "products.csv", BulkFormat.CSV, ImportMode.INSERT,
+                workDir.resolve("products.csv"), workDir.resolve("errors.csv"));
+
+        try (ProductImportPipeline.ImportRun run = pipeline.start(job)) {
+            ProductRowParser parser = new ProductRowParser(run, job);
+            parser.header(HEADER);
+            parser.row(2, List.of("Merlot", "", "12.5", "10", "13", "750", "France", "", ""));
+            parser.row(3, List.of("Syrah", "", "twelve", "10", "13", "750", "France", "", ""));
+            parser.row(4, List.of("Malbec", "", "", "10", "13,5", "750", "Argentina", "", ""));
+            parser.finish();
+        }
+        job.complete();
+
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(productService).bulkInsert(inserted.capture());
+        assertEquals(List.of("Merlot"), inserted.getValue().stream().map(Product::getName).toList());
+        assertEquals(2, job.getRowsFailed().get());
+        assertEquals(List.of(
+                "row,error",
+                "3,\"Invalid number in column price: twelve\"",
+                "4,\"Invalid number in column alcohol: 13,5\""
+        ), Files.readAllLines(workDir.resolve("errors.csv")));
+    }
+}
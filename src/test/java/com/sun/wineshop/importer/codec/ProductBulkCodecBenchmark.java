@@ -0,0 +1,127 @@
+package com.sun.wineshop.importer.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.importer.ProductRowSink;
+import com.sun.wineshop.model.enums.BulkFormat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Export and import cost of each bulk format for the same catalog, XLSX being the baseline.
+// Run with: mvn test-compile, then the main method below from the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductBulkCodecBenchmark {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Param({"XLSX", "CSV", "NDJSON"})
+    private BulkFormat format;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private ProductBulkCodec codec;
+    private List<ProductExportRow> catalog;
+    private Path file;
+
+    @Setup
+    public void setUp() throws Exception {
+        codec = Map.of(
+                BulkFormat.XLSX, new XlsxProductCodec(),
+                BulkFormat.CSV, new CsvProductCodec(),
+                BulkFormat.NDJSON, new NdjsonProductCodec(new ObjectMapper())
+        ).get(format);
+
+        catalog = new ArrayList<>(rows);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= rows; id++) {
+            catalog.add(new ProductExportRow(id, "Wine " + id, "Notes of plum, cherry and oak for wine " + id,
+                    10 + id % 90 + 0.99, (int) (id % 500), 11 + id % 5 * 0.5, 750, "Origin " + id % 40,
+                    "https://images.example.com/products/" + id + ".png", createdAt.plusMinutes(id),
+                    List.of("Red", "Category " + id % 12)));
+        }
+
+        file = Files.createTempFile("products-benchmark", "." + format.getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            export(out);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long exportCatalog() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        export(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public void importCatalog(Blackhole blackhole) throws Exception {
+        codec.read(file, new ProductRowSink() {
+            @Override
+            public void header(List<String> columns) {
+                blackhole.consume(columns);
+            }
+
+            @Override
+            public void row(int rowNumber, List<String> values) {
+                blackhole.consume(values);
+            }
+
+            @Override
+            public void rowFailed(int rowNumber, String message) {
+                throw new IllegalStateException(message);
+            }
+        });
+    }
+
+    private void export(OutputStream out) throws Exception {
+        codec.write(out, consumer -> {
+            for (int from = 0; from < catalog.size(); from += CHUNK_SIZE) {
+                consumer.accept(catalog.subList(from, Math.min(from + CHUNK_SIZE, catalog.size())));
+            }
+        });
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductBulkCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,189 @@
+package com.sun.wineshop.importer.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.wineshop.configuration.ImportProperties;
+import com.sun.wineshop.dto.response.ProductExportRow;
+import com.sun.wineshop.importer.ImportJob;
+import com.sun.wineshop.importer.ProductImportPipeline;
+import com.sun.wineshop.importer.ProductRowParser;
+import com.sun.wineshop.importer.ProductRowSink;
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.ImportMode;
+import com.sun.wineshop.service.CategoryService;
+import com.sun.wineshop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ProductBulkCodecTests {
+
+    private static final List<ProductExportRow> ROWS = List.of(
+            new ProductExportRow(1L, "Château \"Grand\" Cru", "Rich, full-bodied\nwith notes of plum", 59.9, 12,
+                    13.5, 750, "France", "https://img/1.png", LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+                    List.of("Red", "Premium")),
+            new ProductExportRow(2L, "Vinho Verde", "", 9.0, 0,
+                    9.5, 1000, "Portugal", null, LocalDateTime.of(2024, 2, 3, 4, 5, 6),
+                    List.of("White"))
+    );
+
+    @TempDir
+    Path workDir;
+
+    static Stream<ProductBulkCodec> codecs() {
+        return Stream.of(new XlsxProductCodec(), new CsvProductCodec(), new NdjsonProductCodec(new ObjectMapper()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void exportedFilesImportBack(ProductBulkCodec codec) throws Exception {
+        Path file = export(codec, ROWS);
+
+        List<Product> imported = importFile(codec, file);
+
+        assertEquals(2, imported.size());
+        Product first = imported.get(0);
+        assertEquals("Château \"Grand\" Cru", first.getName());
+        assertEquals("Rich, full-bodied\nwith notes of plum", first.getDescription());
+        assertEquals(59.9, first.getPrice());
+        assertEquals(12, first.getStockQuantity());
+        assertEquals(13.5, first.getAlcoholPercentage());
+        assertEquals(750, first.getVolume());
+        assertEquals("France", first.getOrigin());
+        assertEquals(List.of("Red", "Premium"), categoryNames(first));
+        assertEquals("Vinho Verde", imported.get(1).getName());
+        assertEquals(List.of("White"), categoryNames(imported.get(1)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void writesOneHeaderForManyChunks(ProductBulkCodec codec) throws Exception {
+        Path file = workDir.resolve("chunks." + codec.format().getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            codec.write(out, consumer -> {
+                consumer.accept(ROWS.subList(0, 1));
+                consumer.accept(List.of());
+                consumer.accept(ROWS.subList(1, 2));
+            });
+        }
+
+        RecordingSink sink = read(codec, file);
+
+        assertEquals(1, sink.headers.size());
+        assertEquals(2, sink.rows.size());
+    }
+
+    @Test
+    void csvReadsQuotedFieldsAndByteOrderMark() throws Exception {
+        Path file = workDir.resolve("products.csv");
+        Files.writeString(file, "\uFEFFName,Categories\r\n"
+                + "\"Wine, \"\"Red\"\"\",\"Red,Dry\"\r\n"
+                + "\"Two\nlines\",\r\n"
+                + "Last,White", StandardCharsets.UTF_8);
+
+        RecordingSink sink = read(new CsvProductCodec(), file);
+
+        assertEquals(List.of("Name", "Categories"), sink.headers.get(0));
+        assertEquals(List.of("Wine, \"Red\"", "Red,Dry"), sink.rows.get(0));
+        assertEquals(List.of("Two\nlines", ""), sink.rows.get(1));
+        assertEquals(List.of("Last", "White"), sink.rows.get(2));
+    }
+
+    @Test
+    void ndjsonJoinsArraysAndReportsMalformedLines() throws Exception {
+        Path file = workDir.resolve("products.ndjson");
+        Files.writeString(file, """
+                {"name":"Merlot","price":12.5,"categories":["Red","Dry"]}
+
+                {"name":
+                ["not","an","object"]
+                {"name":"Syrah","price":null}
+                """, StandardCharsets.UTF_8);
+
+        RecordingSink sink = read(new NdjsonProductCodec(new ObjectMapper()), file);
+
+        assertEquals(List.of("name", "price", "categories"), sink.headers.get(0));
+        assertEquals(List.of("Merlot", "12.5", "Red,Dry"), sink.rows.get(0));
+        assertEquals(List.of("Syrah", "", ""), sink.rows.get(1));
+        assertEquals(Set.of(3, 4), sink.failures.keySet());
+    }
+
+    private Path export(ProductBulkCodec codec, List<ProductExportRow> rows) throws Exception {
+        Path file = workDir.resolve("products." + codec.format().getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            codec.write(out, consumer -> consumer.accept(rows));
+        }
+        return file;
+    }
+
+    private List<Product> importFile(ProductBulkCodec codec, Path file) throws Exception {
+        CategoryService categoryService = mock(CategoryService.class);
+        when(categoryService.findOrCreateByNames(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            return names.stream().collect(Collectors.toMap(name -> name,
+                    name -> Category.builder().id((long) name.hashCode()).name(name).build()));
+        });
+        List<Product> saved = Collections.synchronizedList(new ArrayList<>());
+        ProductService productService = mock(ProductService.class);
+        doAnswer(invocation -> saved.addAll(invocation.getArgument(0))).when(productService).bulkInsert(anyList());
+
+        ProductImportPipeline pipeline = new ProductImportPipeline(categoryService, productService, new ImportProperties());
+        ImportJob job = new ImportJob("job", file.getFileName().toString(), codec.format(), ImportMode.INSERT,
+                file, workDir.resolve("errors.csv"));
+        try (ProductImportPipeline.ImportRun run = pipeline.start(job)) {
+            ProductRowParser parser = new ProductRowParser(run, job);
+            codec.read(file, parser);
+            parser.finish();
+        }
+        job.complete();
+
+        assertEquals(0, job.getRowsFailed().get());
+        saved.sort(Comparator.comparing(Product::getPrice, Comparator.reverseOrder()));
+        return saved;
+    }
+
+    private RecordingSink read(ProductBulkCodec codec, Path file) throws Exception {
+        RecordingSink sink = new RecordingSink();
+        codec.read(file, sink);
+        return sink;
+    }
+
+    private static List<String> categoryNames(Product product) {
+        return product.getCategories().stream().map(Category::getName).toList();
+    }
+
+    private static class RecordingSink implements ProductRowSink {
+        private final List<List<String>> headers = new ArrayList<>();
+        private final List<List<String>> rows = new ArrayList<>();
+        private final Map<Integer, String> failures = new HashMap<>();
+
+        @Override
+        public void header(List<String> columns) {
+            headers.add(List.copyOf(columns));
+        }
+
+        @Override
+        public void row(int rowNumber, List<String> values) {
+            rows.add(List.copyOf(values));
+        }
+
+        @Override
+        public void rowFailed(int rowNumber, String message) {
+            failures.put(rowNumber, message);
+        }
+    }
+}
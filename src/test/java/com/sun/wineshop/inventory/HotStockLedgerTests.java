@@ -0,0 +1,155 @@
+package com.sun.wineshop.inventory;
+
+import com.sun.wineshop.configuration.InventoryProperties;
+import com.sun.wineshop.repository.InventoryJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class HotStockLedgerTests {
+
+    private static final long HOT_ID = 1L;
+    private static final long OTHER_HOT_ID = 2L;
+    private static final int THREADS = 16;
+
+    private final InventoryJdbcRepository repository = mock(InventoryJdbcRepository.class);
+    private final InventoryProperties properties = new InventoryProperties();
+    private final HotStockLedger ledger = new HotStockLedger(properties, repository);
+
+    @Test
+    void stripedStockNeverHandsOutMoreThanItHolds() throws Exception {
+        StripedStock stock = new StripedStock(8, 1_000);
+        AtomicInteger sold = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int quantity = ThreadLocalRandom.current().nextInt(1, 6);
+            if (stock.tryReserve(quantity)) {
+                sold.addAndGet(quantity);
+            }
+        }, 20_000);
+
+        assertTrue(sold.get() <= 1_000);
+        assertEquals(1_000, sold.get() + stock.available());
+        assertEquals(sold.get(), stock.reserved.sum());
+    }
+
+    @Test
+    void stripedStockGathersFromOtherStripes() {
+        StripedStock stock = new StripedStock(8, 10);
+
+        assertTrue(stock.tryReserve(10));
+        assertFalse(stock.tryReserve(1));
+        assertEquals(0, stock.available());
+    }
+
+    @Test
+    void ledgerDoesNotOversellUnderContention() throws Exception {
+        load(Map.of(HOT_ID, 500, OTHER_HOT_ID, 300));
+        AtomicInteger soldHot = new AtomicInteger();
+        AtomicInteger soldOther = new AtomicInteger();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            SortedMap<Long, Integer> order = new TreeMap<>(Map.of(
+                    HOT_ID, random.nextInt(1, 4),
+                    OTHER_HOT_ID, random.nextInt(1, 3)));
+            if (!ledger.reserve(order).isEmpty()) {
+                return;
+            }
+            // Some checkouts roll back after reserving and must hand their stock back.
+            boolean committed = random.nextInt(10) > 0;
+            ledger.complete(order, committed);
+            if (committed) {
+                soldHot.addAndGet(order.get(HOT_ID));
+                soldOther.addAndGet(order.get(OTHER_HOT_ID));
+            }
+        }, 10_000);
+
+        assertTrue(soldHot.get() <= 500);
+        assertTrue(soldOther.get() <= 300);
+        assertEquals(500, soldHot.get() + ledger.stock(HOT_ID).available());
+        assertEquals(300, soldOther.get() + ledger.stock(OTHER_HOT_ID).available());
+        assertEquals(0, ledger.stock(HOT_ID).inFlight.sum());
+    }
+
+    @Test
+    void failedReservationPutsBackWhatWasTaken() {
+        load(Map.of(HOT_ID, 5, OTHER_HOT_ID, 1));
+
+        List<Long> shortIds = ledger.reserve(new TreeMap<>(Map.of(HOT_ID, 3, OTHER_HOT_ID, 2)));
+
+        assertEquals(List.of(OTHER_HOT_ID), shortIds);
+        assertEquals(5, ledger.stock(HOT_ID).available());
+        assertEquals(1, ledger.stock(OTHER_HOT_ID).available());
+    }
+
+    @Test
+    void releaseReturnsCancelledQuantities() {
+        load(Map.of(HOT_ID, 5));
+        SortedMap<Long, Integer> order = new TreeMap<>(Map.of(HOT_ID, 4));
+        ledger.reserve(order);
+        ledger.complete(order, true);
+
+        ledger.release(order);
+
+        assertEquals(5, ledger.stock(HOT_ID).available());
+    }
+
+    @Test
+    void reconcileFollowsTheCommittedStock() {
+        load(Map.of(HOT_ID, 10));
+        SortedMap<Long, Integer> order = new TreeMap<>(Map.of(HOT_ID, 3));
+        ledger.reserve(order);
+        ledger.complete(order, true);
+
+        // An admin lowered the stock: 4 left, of which the 3 sold are still pending in the database.
+        when(repository.committedAvailable(anyCollection())).thenReturn(Map.of(HOT_ID, 1));
+        ledger.reconcile();
+        assertEquals(1, ledger.stock(HOT_ID).available());
+
+        when(repository.committedAvailable(anyCollection())).thenReturn(Map.of(HOT_ID, 20));
+        ledger.reconcile();
+        assertEquals(20, ledger.stock(HOT_ID).available());
+    }
+
+    @Test
+    void untrackedUntilLoadedAndAfterStop() {
+        assertFalse(ledger.isTracked(HOT_ID));
+
+        load(Map.of(HOT_ID, 1));
+        assertTrue(ledger.isTracked(HOT_ID));
+
+        ledger.stop();
+        assertFalse(ledger.isTracked(HOT_ID));
+    }
+
+    private void load(Map<Long, Integer> available) {
+        properties.setHotProductIds(new HashSet<>(available.keySet()));
+        when(repository.committedAvailable(anyCollection())).thenReturn(available);
+        ledger.load();
+    }
+
+    private static void runConcurrently(Runnable task, int times) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+}
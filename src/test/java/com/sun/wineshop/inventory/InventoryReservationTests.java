@@ -0,0 +1,120 @@
+package com.sun.wineshop.inventory;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.model.entity.OrderItem;
+import com.sun.wineshop.model.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// InventoryServiceImpl with its real SQL on an in-memory database, under concurrent transactions.
+class InventoryReservationTests {
+
+    private static final long RED = 1L;
+    private static final long WHITE = 2L;
+    private static final long HOT = 3L;
+    private static final Map<Long, Integer> INITIAL_STOCK = Map.of(RED, 200, WHITE, 120, HOT, 300);
+    private static final int THREADS = 16;
+    private static final int ORDERS = 3_000;
+
+    private final AtomicLong itemIds = new AtomicLong();
+    private InventoryTestDatabase db;
+
+    @BeforeEach
+    void setUp() {
+        db = new InventoryTestDatabase(INITIAL_STOCK, Set.of(HOT));
+    }
+
+    @Test
+    void concurrentCheckoutsAndCancellationsNeverOversell() throws Exception {
+        Map<Long, Long> sold = new ConcurrentHashMap<>();
+        AtomicBoolean checkoutsDone = new AtomicBoolean();
+        // The hot ledger's lines are applied to the rows while checkouts run, as the scheduled flusher does.
+        ExecutorService flusherThread = Executors.newSingleThreadExecutor();
+        Future<?> flusher = flusherThread.submit(() -> {
+            while (!checkoutsDone.get()) {
+                db.transactionTemplate.executeWithoutResult(status -> db.inventoryJdbcRepository.applyPending(50));
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            checkouts.add(executor.submit(() -> {
+                start.await();
+                checkout(sold);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> checkout : checkouts) {
+            checkout.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        checkoutsDone.set(true);
+        flusher.get(60, TimeUnit.SECONDS);
+        flusherThread.shutdown();
+        db.transactionTemplate.executeWithoutResult(status -> db.inventoryJdbcRepository.applyPending(Integer.MAX_VALUE));
+
+        INITIAL_STOCK.forEach((productId, initial) -> {
+            long net = sold.getOrDefault(productId, 0L);
+            assertTrue(net <= initial, "oversold product " + productId);
+            assertEquals(initial - net, db.stockOf(productId), "stock of product " + productId);
+        });
+        // With nothing in flight the hot counters match the row again.
+        assertEquals(INITIAL_STOCK.get(HOT) - sold.getOrDefault(HOT, 0L), db.hotStockLedger.stock(HOT).available());
+    }
+
+    @Test
+    void shortLineRollsBackTheWholeReservation() {
+        AppException e = assertThrows(AppException.class, () -> db.transactionTemplate.executeWithoutResult(status ->
+                db.inventoryService.reserve(List.of(item(RED, 5), item(WHITE, 121)))));
+
+        assertEquals(ErrorCode.PRODUCT_OUT_OF_STOCK, e.getErrorCode());
+        assertEquals(200, db.stockOf(RED));
+    }
+
+    private void checkout(Map<Long, Long> sold) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderItem> items = new ArrayList<>();
+        items.add(item(random.nextBoolean() ? RED : WHITE, random.nextInt(1, 4)));
+        if (random.nextBoolean()) {
+            items.add(item(HOT, random.nextInt(1, 3)));
+        }
+
+        try {
+            db.transactionTemplate.executeWithoutResult(status -> {
+                db.inventoryService.reserve(items);
+                items.forEach(item -> {
+                    item.setId(itemIds.incrementAndGet());
+                    db.insertLine(item.getId(), item.getProduct().getId(), item.getQuantity(), item.isStockApplied());
+                });
+            });
+        } catch (AppException e) {
+            assertEquals(ErrorCode.PRODUCT_OUT_OF_STOCK, e.getErrorCode());
+            return;
+        }
+        items.forEach(item -> sold.merge(item.getProduct().getId(), (long) item.getQuantity(), Long::sum));
+
+        // A quarter of the orders are cancelled again, racing with the flusher for hot lines.
+        if (random.nextInt(4) == 0) {
+            db.transactionTemplate.executeWithoutResult(status -> db.inventoryService.release(items));
+            items.forEach(item -> sold.merge(item.getProduct().getId(), (long) -item.getQuantity(), Long::sum));
+        }
+    }
+
+    private static OrderItem item(long productId, int quantity) {
+        return OrderItem.builder()
+                .product(Product.builder().id(productId).build())
+                .quantity(quantity)
+                .build();
+    }
+}
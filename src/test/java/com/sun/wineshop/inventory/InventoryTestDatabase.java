@@ -0,0 +1,66 @@
+package com.sun.wineshop.inventory;
+
+import com.sun.wineshop.configuration.InventoryProperties;
+import com.sun.wineshop.repository.InventoryJdbcRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
+import com.sun.wineshop.service.impl.InventoryServiceImpl;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// The inventory tables and services on a private in-memory database, without a Spring context.
+class InventoryTestDatabase {
+
+    final JdbcTemplate jdbcTemplate;
+    final TransactionTemplate transactionTemplate;
+    final InventoryJdbcRepository inventoryJdbcRepository;
+    final HotStockLedger hotStockLedger;
+    final InventoryServiceImpl inventoryService;
+
+    InventoryTestDatabase(Map<Long, Integer> stock, Set<Long> hotProductIds) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:inventory-" + UUID.randomUUID() + ";MODE=MySQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE products (
+                    id BIGINT PRIMARY KEY,
+                    stock_quantity INT NOT NULL,
+                    deleted_at TIMESTAMP
+                )
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE order_items (
+                    id BIGINT PRIMARY KEY,
+                    product_id BIGINT NOT NULL,
+                    quantity INT NOT NULL,
+                    stock_applied BOOLEAN NOT NULL
+                )
+                """);
+        stock.forEach((id, quantity) ->
+                jdbcTemplate.update("INSERT INTO products (id, stock_quantity) VALUES (?, ?)", id, quantity));
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        inventoryJdbcRepository = new InventoryJdbcRepository(jdbcTemplate);
+        InventoryProperties properties = new InventoryProperties();
+        properties.setHotProductIds(hotProductIds);
+        hotStockLedger = new HotStockLedger(properties, inventoryJdbcRepository);
+        hotStockLedger.load();
+        inventoryService = new InventoryServiceImpl(new ProductJdbcRepository(jdbcTemplate), inventoryJdbcRepository,
+                hotStockLedger, new ConcurrentMapCacheManager());
+    }
+
+    int stockOf(long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    void insertLine(long id, long productId, int quantity, boolean stockApplied) {
+        jdbcTemplate.update("INSERT INTO order_items (id, product_id, quantity, stock_applied) VALUES (?, ?, ?, ?)",
+                id, productId, quantity, stockApplied);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sun.wineshop.inventory;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.model.entity.OrderItem;
+import com.sun.wineshop.model.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Checkout reservations per second on one contended SKU: the conditional UPDATE on the products row
+// against the in-memory hot ledger. Runs on H2, so absolute numbers understate MySQL row-lock waits.
+// Run with: mvn test-compile, then the main method below from the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class StockReservationBenchmark {
+
+    private static final long PRODUCT_ID = 1L;
+
+    @Param({"DATABASE", "HOT_LEDGER"})
+    private String path;
+
+    private InventoryTestDatabase db;
+
+    @Setup
+    public void setUp() {
+        Set<Long> hot = path.equals("HOT_LEDGER") ? Set.of(PRODUCT_ID) : Set.of();
+        db = new InventoryTestDatabase(Map.of(PRODUCT_ID, Integer.MAX_VALUE), hot);
+    }
+
+    @Benchmark
+    public boolean reserve() {
+        List<OrderItem> items = List.of(OrderItem.builder()
+                .product(Product.builder().id(PRODUCT_ID).build())
+                .quantity(1)
+                .build());
+        try {
+            db.transactionTemplate.executeWithoutResult(status -> db.inventoryService.reserve(items));
+            return true;
+        } catch (AppException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockReservationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
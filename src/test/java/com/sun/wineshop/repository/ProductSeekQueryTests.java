@@ -0,0 +1,84 @@
+package com.sun.wineshop.repository;
+
+import com.sun.wineshop.dto.request.ProductSearchRequest;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.model.enums.ProductCursorSort;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Keyset pages walk every product exactly once, with products without a price where the database sorts NULL.
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:schema-h2.sql"
+})
+class ProductSeekQueryTests {
+
+    private static final Double[] PRICES = {12.0, null, 8.5, 12.0, null, 30.0, 8.5, 12.0, null, 5.0};
+    private static final ProductSearchRequest NO_FILTERS = new ProductSearchRequest(null, null, null, null, null, null);
+    private static final Comparator<Product> BY_PRICE_THEN_ID =
+            Comparator.comparing(Product::getPrice, Comparator.nullsFirst(Comparator.<Double>naturalOrder()))
+                    .thenComparing(Product::getId);
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRICES.length; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Wine " + i)
+                    .origin("France")
+                    .volume(750)
+                    .price(PRICES[i])
+                    .stockQuantity(10)
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void priceAscendingStartsWithProductsWithoutAPrice() {
+        assertEquals(expected(BY_PRICE_THEN_ID), walk(ProductCursorSort.PRICE_ASC));
+    }
+
+    @Test
+    void priceDescendingEndsWithProductsWithoutAPrice() {
+        assertEquals(expected(BY_PRICE_THEN_ID.reversed()), walk(ProductCursorSort.PRICE_DESC));
+    }
+
+    private List<Long> expected(Comparator<Product> order) {
+        return products.stream().sorted(order).map(Product::getId).toList();
+    }
+
+    // Pages of three, each seeking after the last row of the one before.
+    private List<Long> walk(ProductCursorSort sort) {
+        List<Long> ids = new ArrayList<>();
+        Comparable<?> lastValue = null;
+        Long lastId = null;
+        while (true) {
+            List<ProductSearchRepository.SeekRow> page =
+                    productRepository.seekProducts(NO_FILTERS, null, sort, lastValue, lastId, 3);
+            if (page.isEmpty()) {
+                return ids;
+            }
+            page.forEach(row -> ids.add(row.id()));
+            ProductSearchRepository.SeekRow last = page.getLast();
+            lastValue = (Comparable<?>) last.sortValue();
+            lastId = last.id();
+        }
+    }
+}
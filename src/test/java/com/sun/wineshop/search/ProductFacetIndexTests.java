@@ -0,0 +1,105 @@
+package com.sun.wineshop.search;
+
+import com.sun.wineshop.dto.request.ProductSearchRequest;
+import com.sun.wineshop.event.ProductChangedEvent;
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTests {
+
+    private static final Category RED = Category.builder().id(1L).name("Red").build();
+    private static final Category WHITE = Category.builder().id(2L).name("White").build();
+
+    private final ProductFacetIndex index = new ProductFacetIndex();
+
+    @BeforeEach
+    void loadCatalog() {
+        index.load(List.of(
+                product(1L, 8.0, 12.5, "France", RED),
+                product(2L, 15.0, 13.5, "Italy", RED),
+                product(3L, 45.0, 11.0, "France", WHITE),
+                product(4L, 250.0, 14.5, "Spain", RED, WHITE)
+        ));
+        index.finishLoad(true);
+    }
+
+    @Test
+    void countsEveryLiveProductWithoutFilters() {
+        ProductFacetIndex.FacetSearchResult result = search(request(null, null, null));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.matchingIds());
+        assertEquals(Map.of(1L, 3L, 2L, 2L), result.categoryCounts());
+        assertEquals(Map.of("France", 2L, "Italy", 1L, "Spain", 1L), result.originCounts());
+        assertEquals(1L, result.priceRangeCounts().get("<10"));
+        assertEquals(1L, result.priceRangeCounts().get("10-20"));
+        assertEquals(1L, result.priceRangeCounts().get("20-50"));
+        assertEquals(1L, result.priceRangeCounts().get("200+"));
+        assertEquals(0L, result.priceRangeCounts().get("50-100"));
+    }
+
+    @Test
+    void eachFacetIgnoresItsOwnFilter() {
+        ProductFacetIndex.FacetSearchResult result = search(request(10.0, 100.0, List.of(RED.getId())));
+
+        assertEquals(List.of(2L), result.matchingIds());
+        // Categories are counted over the price filter only, so White still shows its alternative.
+        assertEquals(Map.of(1L, 1L, 2L, 1L), result.categoryCounts());
+        // Prices are counted over the category filter only.
+        assertEquals(1L, result.priceRangeCounts().get("<10"));
+        assertEquals(1L, result.priceRangeCounts().get("200+"));
+        assertEquals(Map.of("Italy", 1L), result.originCounts());
+    }
+
+    @Test
+    void keepsTheOrderOfRankedCandidates() {
+        ProductFacetIndex.FacetSearchResult result = index.search(request(null, null, null), List.of(4L, 1L, 99L))
+                .orElseThrow();
+
+        assertEquals(List.of(4L, 1L), result.matchingIds());
+        assertEquals(Map.of("Spain", 1L, "France", 1L), result.originCounts());
+    }
+
+    @Test
+    void dropsRemovedProductsFromEveryFacet() {
+        index.onProductChanged(ProductChangedEvent.removed(4L));
+
+        ProductFacetIndex.FacetSearchResult result = search(request(null, null, List.of(WHITE.getId())));
+
+        assertEquals(List.of(3L), result.matchingIds());
+        assertEquals(0L, result.priceRangeCounts().get("200+"));
+        assertEquals(Map.of(1L, 2L, 2L, 1L), result.categoryCounts());
+    }
+
+    @Test
+    void cannotAnswerWhenLoadFailed() {
+        ProductFacetIndex failed = new ProductFacetIndex();
+        failed.finishLoad(false);
+
+        assertTrue(failed.search(request(null, null, null), null).isEmpty());
+    }
+
+    private ProductFacetIndex.FacetSearchResult search(ProductSearchRequest request) {
+        return index.search(request, null).orElseThrow();
+    }
+
+    private static ProductSearchRequest request(Double minPrice, Double maxPrice, List<Long> categoryIds) {
+        return new ProductSearchRequest(null, minPrice, maxPrice, null, null, categoryIds);
+    }
+
+    private static Product product(Long id, Double price, Double alcohol, String origin, Category... categories) {
+        return Product.builder()
+                .id(id)
+                .price(price)
+                .alcoholPercentage(alcohol)
+                .origin(origin)
+                .categories(List.of(categories))
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.sun.wineshop.search;
+
+import com.sun.wineshop.event.ProductChangedEvent;
+import com.sun.wineshop.model.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTests {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void searchIsUnavailableUntilLoaded() {
+        assertTrue(index.search("merlot").isEmpty());
+
+        index.load(List.of(product(1L, "Merlot", "France", "")));
+        index.finishLoad(true);
+
+        assertEquals(List.of(1L), index.search("merlot").orElseThrow());
+    }
+
+    @Test
+    void matchesEveryTermByPrefixIgnoringCaseAndDiacritics() {
+        load(
+                product(1L, "Château Margaux", "France", "Red blend"),
+                product(2L, "Rosé de Provence", "France", "Dry rosé"),
+                product(3L, "Margaret River Chardonnay", "Australia", "White")
+        );
+
+        assertEquals(List.of(1L), index.search("chateau MARG").orElseThrow());
+        assertEquals(List.of(2L), index.search("rose").orElseThrow());
+        assertEquals(List.of(), index.search("chateau australia").orElseThrow());
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        load(
+                product(1L, "Table wine", "Italy", "Pairs with barolo dishes"),
+                product(2L, "Barolo", "Italy", "Nebbiolo")
+        );
+
+        assertEquals(List.of(2L, 1L), index.search("barolo").orElseThrow());
+    }
+
+    @Test
+    void returnsEveryHitWithoutTruncation() {
+        List<Product> products = new ArrayList<>();
+        LongStream.rangeClosed(1, 12_000).forEach(id -> products.add(product(id, "Cabernet " + id, "Chile", "")));
+        index.load(products);
+        index.finishLoad(true);
+
+        assertEquals(12_000, index.search("cabernet").orElseThrow().size());
+    }
+
+    @Test
+    void appliesChangeEventsAndIgnoresStaleLoadedRows() {
+        Product renamed = product(1L, "Riesling", "Germany", "");
+        index.onProductChanged(ProductChangedEvent.changed(renamed));
+        // The loader read the row before the change event arrived.
+        index.load(List.of(product(1L, "Sylvaner", "Germany", "")));
+        index.finishLoad(true);
+
+        assertEquals(List.of(1L), index.search("riesling").orElseThrow());
+        assertEquals(List.of(), index.search("sylvaner").orElseThrow());
+
+        Product deleted = product(1L, "Riesling", "Germany", "");
+        deleted.setDeletedAt(LocalDateTime.now());
+        index.onProductChanged(ProductChangedEvent.changed(deleted));
+        assertEquals(List.of(), index.search("riesling").orElseThrow());
+    }
+
+    @Test
+    void ignoresQueriesWithoutUsableTerms() {
+        load(product(1L, "Malbec", "Argentina", ""));
+
+        assertTrue(index.search("a").isEmpty());
+        assertTrue(index.search(" - ").isEmpty());
+    }
+
+    private void load(Product... products) {
+        index.load(List.of(products));
+        index.finishLoad(true);
+    }
+
+    private static Product product(Long id, String name, String origin, String description) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .origin(origin)
+                .description(description)
+                .build();
+    }
+}
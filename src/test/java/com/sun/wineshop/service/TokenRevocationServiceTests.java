@@ -0,0 +1,68 @@
+package com.sun.wineshop.service;
+
+import com.sun.wineshop.configuration.SecurityProperties;
+import com.sun.wineshop.model.entity.InvalidatedToken;
+import com.sun.wineshop.repository.InvalidatedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTests {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final InvalidatedTokenRepository repository = mock(InvalidatedTokenRepository.class);
+    private final SecurityProperties properties = new SecurityProperties();
+    private final TokenRevocationService service = new TokenRevocationService(repository, properties);
+
+    @BeforeEach
+    void setUp() {
+        properties.getRevocation().setSyncOverlap(Duration.ofSeconds(30));
+        when(repository.findAllByExpiryTimeAfter(any())).thenReturn(List.of(token("old", HOUR)));
+        service.loadRevokedTokens();
+    }
+
+    @Test
+    void syncReadsOnlyRecentRevocations() {
+        when(repository.findAllByRevokedAtAfterAndExpiryTimeAfter(any(), any())).thenReturn(List.of(token("remote", HOUR)));
+        long before = System.currentTimeMillis();
+
+        service.syncFromDatabase();
+
+        assertTrue(service.isRevoked("old"));
+        assertTrue(service.isRevoked("remote"));
+        verify(repository, times(1)).findAllByExpiryTimeAfter(any());
+        ArgumentCaptor<Date> revokedAfter = ArgumentCaptor.forClass(Date.class);
+        verify(repository).findAllByRevokedAtAfterAndExpiryTimeAfter(revokedAfter.capture(), any());
+        // From the previous sync, minus the overlap for transactions that committed late.
+        assertTrue(revokedAfter.getValue().getTime() <= before - Duration.ofSeconds(30).toMillis());
+        assertTrue(revokedAfter.getValue().getTime() > before - Duration.ofSeconds(60).toMillis());
+    }
+
+    @Test
+    void expiredTokensAreDropped() {
+        service.revoke("short", new Date(System.currentTimeMillis() - 1));
+
+        service.syncFromDatabase();
+
+        assertFalse(service.isRevoked("short"));
+        assertTrue(service.isRevoked("old"));
+        assertFalse(service.isRevoked(null));
+    }
+
+    private static InvalidatedToken token(String id, long expiresIn) {
+        return InvalidatedToken.builder()
+                .id(id)
+                .expiryTime(new Date(System.currentTimeMillis() + expiresIn))
+                .revokedAt(new Date())
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.cart.CartStore;
+import com.sun.wineshop.configuration.CartStoreProperties;
+import com.sun.wineshop.dto.response.CartItemResponse;
+import com.sun.wineshop.dto.response.CartResponse;
+import com.sun.wineshop.model.entity.Cart;
+import com.sun.wineshop.repository.CartItemRepository;
+import com.sun.wineshop.repository.CartJdbcRepository;
+import com.sun.wineshop.repository.CartRepository;
+import com.sun.wineshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cart page read for carts of 1, 20 and 100 lines: the projection query behind getCartByUserId against
+// the entity walk it replaced (cart, lazy lines, a product per line). Runs on H2 with the test schema,
+// so it shows the statement and materialisation cost rather than MySQL latency.
+// Run with: mvn test-compile, then the main method below from the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartReadBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"1", "20", "100"})
+    private int lines;
+
+    @Param({"PROJECTION", "ENTITIES"})
+    private String path;
+
+    private ConfigurableApplicationContext context;
+    private CartServiceImpl cartService;
+    private CartRepository cartRepository;
+    private TransactionTemplate transactionTemplate;
+
+    // A plain source rather than a @Configuration, so the application's component scan does not pick it up.
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Cart.class)
+    @EnableJpaRepositories(basePackageClasses = CartRepository.class)
+    static class Config {
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Config.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:cart-read-" + lines + "-" + path,
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "spring.jpa.open-in-view=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO cart (id, user_id) VALUES (1, ?)", USER_ID);
+        for (long id = 1; id <= lines; id++) {
+            jdbcTemplate.update("INSERT INTO products (id, name, price, stock_quantity, image_url) VALUES (?, ?, ?, 100, ?)",
+                    id, "Wine " + id, 10.0 + id, "https://images.example.com/products/" + id + ".png");
+            jdbcTemplate.update("INSERT INTO cart_item (cart_id, product_id, quantity) VALUES (1, ?, 2)", id);
+        }
+
+        cartRepository = context.getBean(CartRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        cartService = new CartServiceImpl(context.getBean(CartItemRepository.class), new CartJdbcRepository(jdbcTemplate),
+                context.getBean(ProductRepository.class),
+                new CartStore(new CartStoreProperties(), new CartJdbcRepository(jdbcTemplate)), transactionTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartResponse read() {
+        return path.equals("PROJECTION") ? cartService.getCartByUserId(USER_ID) : readEntities();
+    }
+
+    private CartResponse readEntities() {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findByUserId(USER_ID).orElseThrow();
+            List<CartItemResponse> items = cart.getItems().stream()
+                    .map(item -> new CartItemResponse(
+                            item.getProduct().getId(),
+                            item.getProduct().getName(),
+                            item.getProduct().getImageUrl(),
+                            item.getProduct().getPrice(),
+                            item.getQuantity(),
+                            item.getProduct().getDeletedAt() == null))
+                    .toList();
+            double total = items.stream().mapToDouble(item -> item.price() * item.quantity()).sum();
+            return new CartResponse(cart.getId(), USER_ID, items, total);
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartReadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.cart.CartStore;
+import com.sun.wineshop.configuration.IdempotencyRegistry;
+import com.sun.wineshop.dto.request.PlaceOrderRequest;
+import com.sun.wineshop.dto.response.OrderResponse;
+import com.sun.wineshop.model.entity.Cart;
+import com.sun.wineshop.model.entity.CartItem;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.repository.CartItemRepository;
+import com.sun.wineshop.repository.CartRepository;
+import com.sun.wineshop.repository.OrderRepository;
+import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.service.InventoryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+// Statement count of a checkout against an in-memory database; stock reservation is mocked out.
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:schema-h2.sql",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderCheckoutQueryTests {
+
+    private static final long USER_ID = 7L;
+    private static final int LINES = 30;
+
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private OrderServiceImpl orderService;
+    private Statistics statistics;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        CartStore cartStore = mock(CartStore.class);
+        when(cartStore.checkout(anyLong(), any())).thenAnswer(invocation -> ((Supplier<Object>) invocation.getArgument(1)).get());
+        orderService = new OrderServiceImpl(cartRepository, cartItemRepository, orderRepository, inventoryService,
+                mock(IdempotencyRegistry.class), new TransactionTemplate(transactionManager), cartStore);
+
+        Cart cart = new Cart();
+        cart.setUserId(USER_ID);
+        cartRepository.save(cart);
+        for (int i = 0; i < LINES; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Wine " + i)
+                    .price(10.0)
+                    .stockQuantity(100)
+                    .build());
+            cartItemRepository.save(CartItem.builder().cart(cart).product(product).quantity(2).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void checkoutOfThirtyLinesReadsTheCartOnce() {
+        OrderResponse order = orderService.placeOrder(USER_ID, new PlaceOrderRequest("Ann", "Street 1", "0123"), null);
+        entityManager.flush();
+
+        assertEquals(LINES * 2 * 10.0, order.totalAmount());
+        verify(inventoryService).reserve(argThat(items -> items.size() == LINES));
+        // One read of the cart with its lines and products, the order, one insert per line (identity ids
+        // cannot be batched) and the cart lines cleared in one delete.
+        assertEquals(1 + 1 + LINES + 1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+}
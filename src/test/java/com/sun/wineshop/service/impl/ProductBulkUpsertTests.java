@@ -0,0 +1,71 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.dto.response.BulkUpsertResult;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.repository.CategoryRepository;
+import com.sun.wineshop.repository.OrderItemRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
+import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.search.ProductFacetIndex;
+import com.sun.wineshop.search.ProductSearchIndex;
+import com.sun.wineshop.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductBulkUpsertTests {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductJdbcRepository productJdbcRepository = mock(ProductJdbcRepository.class);
+    private final ProductServiceImpl productService = new ProductServiceImpl(productRepository, productJdbcRepository,
+            mock(CategoryRepository.class), mock(CategoryService.class), mock(OrderItemRepository.class),
+            mock(ProductSearchIndex.class), mock(ProductFacetIndex.class), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void accentVariantOfALiveProductUpdatesIt() {
+        // The name lookup uses the column's accent-insensitive collation, so "Rose" finds "Rosé".
+        when(productRepository.findLiveWithCategoriesByNameIn(anyCollection()))
+                .thenReturn(List.of(product(5L, "Château Rosé", "Provence", 10.0)));
+
+        BulkUpsertResult result = productService.bulkUpsert(List.of(product(null, "chateau rose ", "PROVENCE", 12.0)));
+
+        assertEquals(new BulkUpsertResult(0, 1, 0), result);
+        verify(productJdbcRepository, never()).upsertAll(anyList());
+        verify(productJdbcRepository).updateAll(argThat(updates -> updates.getFirst().getId() == 5L), anyList());
+    }
+
+    @Test
+    void insertedRowsGetTheIdsOfTheStoredAccentVariant() {
+        when(productRepository.findLiveWithCategoriesByNameIn(anyCollection())).thenReturn(List.of());
+        // Another import created the key in the meantime with its own spelling; the upsert updated that row.
+        when(productJdbcRepository.findLiveKeys(anyCollection()))
+                .thenReturn(List.of(product(9L, "Château Rosé", "Provence", 10.0)));
+        Product incoming = product(null, "Chateau Rose", "Provence", 12.0);
+
+        productService.bulkUpsert(List.of(incoming));
+
+        assertEquals(9L, incoming.getId());
+        assertEquals(CREATED_AT, incoming.getCreatedAt());
+        verify(productJdbcRepository).replaceCategories(List.of(incoming));
+    }
+
+    private static Product product(Long id, String name, String origin, double price) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .origin(origin)
+                .volume(750)
+                .price(price)
+                .createdAt(id == null ? null : CREATED_AT)
+                .categories(List.of())
+                .build();
+    }
+}
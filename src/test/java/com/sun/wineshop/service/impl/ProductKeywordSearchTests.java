@@ -0,0 +1,75 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.dto.request.ProductSearchRequest;
+import com.sun.wineshop.dto.response.ProductResponse;
+import com.sun.wineshop.repository.CategoryRepository;
+import com.sun.wineshop.repository.OrderItemRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
+import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.search.ProductFacetIndex;
+import com.sun.wineshop.search.ProductSearchIndex;
+import com.sun.wineshop.service.CategoryService;
+import com.sun.wineshop.utils.AppConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductKeywordSearchTests {
+
+    private static final List<Long> HITS = LongStream.rangeClosed(1, 5_000).boxed().toList();
+    private static final ProductSearchRequest REQUEST = new ProductSearchRequest("cabernet", 10.0, null, null, null, null);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex productSearchIndex = mock(ProductSearchIndex.class);
+    private final ProductFacetIndex productFacetIndex = mock(ProductFacetIndex.class);
+    private final ProductServiceImpl productService = new ProductServiceImpl(productRepository,
+            mock(ProductJdbcRepository.class), mock(CategoryRepository.class), mock(CategoryService.class),
+            mock(OrderItemRepository.class), productSearchIndex, productFacetIndex, mock(ApplicationEventPublisher.class));
+
+    @BeforeEach
+    void setUp() {
+        when(productSearchIndex.search("cabernet")).thenReturn(Optional.of(HITS));
+        when(productRepository.findAllWithCategoriesByIdIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void relevancePagesAreFilteredByTheFacetIndex() {
+        // Every other hit passes the price filter.
+        List<Long> matching = HITS.stream().filter(id -> id % 2 == 0).toList();
+        when(productFacetIndex.search(any(), eq(HITS)))
+                .thenReturn(Optional.of(new ProductFacetIndex.FacetSearchResult(matching, Map.of(), Map.of(), Map.of(), Map.of())));
+
+        Page<ProductResponse> page = productService.searchProducts(REQUEST, PageRequest.of(1, 10));
+
+        assertEquals(2_500, page.getTotalElements());
+        verify(productRepository).findAllWithCategoriesByIdIn(matching.subList(10, 20));
+        verify(productRepository, never()).searchProductIds(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void columnSortsQueryOnlyTheBestHits() {
+        when(productRepository.searchProductIds(any(), anyCollection(), any())).thenReturn(new PageImpl<>(List.of()));
+
+        productService.searchProducts(REQUEST, PageRequest.of(0, 10, Sort.by("price")));
+
+        ArgumentCaptor<Collection<Long>> restrictToIds = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepository).searchProductIds(any(), restrictToIds.capture(), any());
+        assertEquals(HITS.subList(0, AppConstants.MAX_SEARCH_HITS), restrictToIds.getValue());
+    }
+}
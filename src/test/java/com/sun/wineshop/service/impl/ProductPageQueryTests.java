@@ -0,0 +1,92 @@
+package com.sun.wineshop.service.impl;
+
+import com.sun.wineshop.dto.response.ProductResponse;
+import com.sun.wineshop.model.entity.Category;
+import com.sun.wineshop.model.entity.Product;
+import com.sun.wineshop.repository.CategoryRepository;
+import com.sun.wineshop.repository.OrderItemRepository;
+import com.sun.wineshop.repository.ProductJdbcRepository;
+import com.sun.wineshop.repository.ProductRepository;
+import com.sun.wineshop.search.ProductFacetIndex;
+import com.sun.wineshop.search.ProductSearchIndex;
+import com.sun.wineshop.service.CategoryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+// Statement count of the product listing against an in-memory database.
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:schema-h2.sql",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductPageQueryTests {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int CATEGORIES = 5;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ProductServiceImpl productService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl(productRepository, mock(ProductJdbcRepository.class), categoryRepository,
+                mock(CategoryService.class), mock(OrderItemRepository.class), mock(ProductSearchIndex.class),
+                mock(ProductFacetIndex.class), mock(ApplicationEventPublisher.class));
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(categoryRepository.save(Category.builder().name("Category " + i).build()));
+        }
+        for (int i = 0; i < 2 * PAGE_SIZE; i++) {
+            productRepository.save(Product.builder()
+                    .name("Wine " + i)
+                    .origin("Origin " + i % 7)
+                    .volume(750)
+                    .price(10.0 + i)
+                    .stockQuantity(10)
+                    .categories(List.of(categories.get(i % CATEGORIES), categories.get((i + 1) % CATEGORIES)))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageOfProductsWithCategoriesTakesThreeStatements() {
+        Page<ProductResponse> page = productService.getAllProducts(PageRequest.of(1, PAGE_SIZE, Sort.by("price")));
+
+        assertEquals(PAGE_SIZE, page.getNumberOfElements());
+        assertEquals(2 * PAGE_SIZE, page.getTotalElements());
+        assertEquals("Wine " + PAGE_SIZE, page.getContent().getFirst().name());
+        page.forEach(product -> assertEquals(2, product.categories().size()));
+        // The page of ids, the count and the products with their categories.
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,62 @@
+package com.sun.wineshop.utils;
+
+import com.sun.wineshop.exception.AppException;
+import com.sun.wineshop.exception.ErrorCode;
+import com.sun.wineshop.model.enums.ProductCursorSort;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorUtilTests {
+
+    @Test
+    void roundTripsSortValues() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000);
+        String cursor = CursorUtil.encode(ProductCursorSort.NEWEST.name(), createdAt, 42L);
+
+        String[] parts = CursorUtil.decode(cursor, 3);
+
+        assertEquals("NEWEST", parts[0]);
+        assertEquals(createdAt, CursorUtil.parse(parts[1], ProductCursorSort.NEWEST.getValueParser()));
+        assertEquals(Long.valueOf(42L), CursorUtil.parse(parts[2], Long::valueOf));
+    }
+
+    @Test
+    void roundTripsNullSortValues() {
+        String cursor = CursorUtil.encode(ProductCursorSort.PRICE_ASC.name(), null, 7L);
+
+        String[] parts = CursorUtil.decode(cursor, 3);
+
+        assertNull(CursorUtil.parseNullable(parts[1], ProductCursorSort.PRICE_ASC.getValueParser()));
+        assertEquals(12.5, CursorUtil.parseNullable("12.5", ProductCursorSort.PRICE_ASC.getValueParser()));
+    }
+
+    @Test
+    void isUrlSafe() {
+        String cursor = CursorUtil.encode("PRICE_DESC", 999.99, Long.MAX_VALUE);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid(() -> CursorUtil.decode("not base64!", 3));
+        assertInvalid(() -> CursorUtil.decode(CursorUtil.encode("NEWEST", 1L), 3));
+        assertInvalid(() -> CursorUtil.parse("abc", Long::valueOf));
+        assertInvalid(() -> CursorUtil.parseNullable("abc", Double::valueOf));
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertEquals(1, CursorUtil.pageSize(0));
+        assertEquals(20, CursorUtil.pageSize(20));
+        assertEquals(AppConstants.MAX_CURSOR_PAGE_SIZE, CursorUtil.pageSize(Integer.MAX_VALUE));
+    }
+
+    private static void assertInvalid(Runnable action) {
+        AppException e = assertThrows(AppException.class, action::run);
+        assertEquals(ErrorCode.INVALID_CURSOR, e.getErrorCode());
+    }
+}
@@ -0,0 +1,66 @@
+-- The tables the JPA query tests touch, for H2. The MySQL schema comes from ddl-auto, whose
+-- products.live_key definition H2 cannot parse.
+CREATE TABLE categories (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    deleted_at TIMESTAMP(6),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE products (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    price FLOAT(53),
+    stock_quantity INTEGER,
+    alcohol_percentage FLOAT(53),
+    volume INTEGER,
+    origin VARCHAR(255),
+    image_url VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    deleted_at TIMESTAMP(6),
+    live_key TINYINT
+);
+
+CREATE TABLE product_categories (
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    category_id BIGINT NOT NULL REFERENCES categories (id)
+);
+
+CREATE TABLE cart (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT,
+    CONSTRAINT uk_cart_user UNIQUE (user_id)
+);
+
+CREATE TABLE cart_item (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id BIGINT REFERENCES cart (id),
+    product_id BIGINT REFERENCES products (id),
+    quantity INTEGER NOT NULL,
+    CONSTRAINT uk_cart_item_cart_product UNIQUE (cart_id, product_id)
+);
+
+CREATE TABLE orders (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT,
+    total_amount FLOAT(53),
+    recipient_name VARCHAR(255),
+    address VARCHAR(255),
+    phone_number VARCHAR(255),
+    idempotency_key VARCHAR(64),
+    status VARCHAR(255),
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_orders_user_idempotency_key UNIQUE (user_id, idempotency_key)
+);
+
+CREATE TABLE order_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id BIGINT REFERENCES orders (id),
+    product_id BIGINT REFERENCES products (id),
+    quantity INTEGER NOT NULL,
+    unit_price FLOAT(53) NOT NULL,
+    stock_applied BOOLEAN DEFAULT TRUE NOT NULL
+);